@@ -0,0 +1,191 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.BulkWriteAttributes;
+import com.reedelk.mongodb.internal.commons.BulkOperations;
+import com.reedelk.mongodb.internal.commons.ObjectIdUtils;
+import com.reedelk.mongodb.internal.commons.WriteConcernUtils;
+import com.reedelk.mongodb.internal.exception.BulkWriteException;
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.ProcessorSync;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reedelk.mongodb.internal.commons.Messages.BulkWrite.BULK_WRITE_CONCERN_ERROR;
+import static com.reedelk.mongodb.internal.commons.Messages.BulkWrite.BULK_WRITE_ERROR;
+import static com.reedelk.mongodb.internal.commons.Messages.BulkWrite.BULK_WRITE_FAILED;
+import static com.reedelk.mongodb.internal.commons.Messages.BulkWrite.BULK_WRITE_OPERATIONS_NULL;
+import static com.reedelk.mongodb.internal.commons.Utils.evaluateOrUsePayloadWhenEmpty;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+
+@ModuleComponent("MongoDB Bulk Write")
+@Component(service = BulkWrite.class, scope = ServiceScope.PROTOTYPE)
+@ComponentOutput(
+        attributes = BulkWriteAttributes.class,
+        payload = List.class,
+        description = "The IDs of the documents inserted by the insertOne operations.")
+@ComponentInput(
+        payload = { List.class, String.class, byte[].class },
+        description = "The list of operations to be executed, or a JSON array of operations.")
+@Description("Executes a list of insert, update, replace and delete operations on the given database collection " +
+        "with a single bulk write, in one round trip to the database. " +
+        "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
+        "Each operation is a document with the type of the operation as only key: " +
+        "insertOne (document), updateOne and updateMany (filter, document, upsert), " +
+        "replaceOne (filter, document, upsert), deleteOne and deleteMany (filter). " +
+        "The counts of inserted, matched, modified and deleted documents and the upserted IDs are returned in the attributes.")
+public class BulkWrite implements ProcessorSync {
+
+    @DialogTitle("MongoDB Connection")
+    @Property("Connection")
+    @Description("MongoDB connection configuration to be used by this bulk write operation. " +
+            "Shared configurations use the same MongoDB client.")
+    private ConnectionConfiguration connection;
+
+    @Property("Collection")
+    @Mandatory
+    @Hint("MyCollection")
+    @Example("MyCollection")
+    @Description("Sets the name of the collection to be used for the bulk write operation.")
+    private String collection;
+
+    @Property("Operations")
+    @InitValue("#[message.payload()]")
+    @DefaultValue("#[message.payload()]")
+    @Example("<ul>" +
+            "<li>[ { insertOne: { document: { _id: 1, name: 'John' } } }, { deleteOne: { filter: { _id: 2 } } } ]</li>" +
+            "<li>[ { updateOne: { filter: { _id: 3 }, document: { $set: { name: 'Mark' } }, upsert: true } } ]</li>" +
+            "<li>[ { replaceOne: { filter: { _id: 4 }, document: { name: 'Anna' } } } ]</li>" +
+            "</ul>")
+    @Description("Sets the list of operations to be executed. It could be a list of documents (JSON strings, Maps or Pairs) " +
+            "or a JSON array. Each operation is a document with the type of the operation " +
+            "(insertOne, updateOne, updateMany, replaceOne, deleteOne, deleteMany) as only key and " +
+            "the filter, document and upsert fields of the operation as value.")
+    private DynamicObject operations;
+
+    @Property("Ordered")
+    @Example("false")
+    @InitValue("true")
+    @DefaultValue("true")
+    @Description("If true, the operations are executed in order and the bulk write stops at the first operation which fails. " +
+            "If false, the database may reorder the operations and it executes all of them even if some fail.")
+    private Boolean ordered;
+
+    @Property("Write Concern")
+    @Description("Sets the write concern of the bulk write operation, overriding the one of the connection.")
+    private WriteConcernConfiguration writeConcern;
+
+    @Reference
+    ConverterService converterService;
+    @Reference
+    ScriptEngineService scriptService;
+    @Reference
+    ClientFactory clientFactory;
+
+    private MongoClient client;
+    private MongoCollection<Document> mongoCollection;
+    private WriteConcern effectiveWriteConcern;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(BulkWrite.class, collection, "MongoDB collection must not be empty");
+        this.client = clientFactory.clientByConfig(this, connection);
+        this.effectiveWriteConcern = WriteConcernUtils.from(
+                client.getDatabase(connection.getDatabase()).getWriteConcern(), writeConcern);
+        this.mongoCollection = client.getDatabase(connection.getDatabase()).getCollection(collection)
+                .withWriteConcern(effectiveWriteConcern);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+
+        Object evaluatedOperations = evaluateOrUsePayloadWhenEmpty(operations, scriptService, flowContext, message,
+                () -> new BulkWriteException(BULK_WRITE_OPERATIONS_NULL.format(operations.value())));
+
+        List<WriteModel<Document>> models = BulkOperations.from(converterService, evaluatedOperations);
+
+        List<Object> insertedIds = new ArrayList<>();
+        for (WriteModel<Document> model : models) {
+            if (model instanceof InsertOneModel) {
+                Object insertedId = ((InsertOneModel<Document>) model).getDocument().get(ObjectIdUtils.OBJECT_ID_PROPERTY);
+                insertedIds.add(ObjectIdUtils.replace(insertedId));
+            }
+        }
+
+        BulkWriteResult bulkWriteResult;
+        try {
+            bulkWriteResult = mongoCollection.bulkWrite(models, new BulkWriteOptions().ordered(ordered == null || ordered));
+        } catch (MongoBulkWriteException exception) {
+            String error = BULK_WRITE_FAILED.format(exception.getWriteErrors().size(), models.size(), errorsOf(exception));
+            throw new BulkWriteException(error);
+        }
+
+        return MessageBuilder.get(BulkWrite.class)
+                .withJavaObject(insertedIds) // The payload contains the IDs of the inserted documents.
+                .attributes(new BulkWriteAttributes(bulkWriteResult))
+                .build();
+    }
+
+    @Override
+    public void dispose() {
+        clientFactory.dispose(this, connection);
+        client = null;
+        mongoCollection = null;
+    }
+
+    // The exception might carry only a write concern error, when all the operations
+    // were applied but could not be acknowledged with the required write concern.
+    private static String errorsOf(MongoBulkWriteException exception) {
+        List<String> errors = new ArrayList<>();
+        if (!exception.getWriteErrors().isEmpty()) {
+            BulkWriteError first = exception.getWriteErrors().get(0);
+            errors.add(BULK_WRITE_ERROR.format(first.getIndex(), first.getCode(), first.getMessage()));
+        }
+        WriteConcernError writeConcernError = exception.getWriteConcernError();
+        if (writeConcernError != null) {
+            errors.add(BULK_WRITE_CONCERN_ERROR.format(writeConcernError.getCode(), writeConcernError.getMessage()));
+        }
+        return String.join(", ", errors);
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setOperations(DynamicObject operations) {
+        this.operations = operations;
+    }
+
+    public void setOrdered(Boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public void setWriteConcern(WriteConcernConfiguration writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+}
@@ -40,6 +40,113 @@ public class ConnectionConfiguration implements Implementor {
     @Description("The database name we want to connect to")
     private String database;
 
+    @Property("Max Pool Size")
+    @Hint("100")
+    @Example("200")
+    @Description("The maximum number of connections in the connection pool of each server. " +
+            "Operations wait for a free connection when all of them are in use, " +
+            "therefore it should be sized to match the number of concurrent flows using this connection. " +
+            "If empty, the value from the connection URL or the driver default (100) is used.")
+    private Integer maxPoolSize;
+
+    @Property("Min Pool Size")
+    @Hint("0")
+    @Example("10")
+    @Description("The minimum number of connections kept open in the connection pool of each server. " +
+            "If empty, the value from the connection URL or the driver default (0) is used.")
+    private Integer minPoolSize;
+
+    @Property("Max Wait Time (ms)")
+    @Hint("120000")
+    @Example("5000")
+    @Description("The maximum time in milliseconds an operation waits for a free connection of the pool before failing. " +
+            "If empty, the value from the connection URL or the driver default (2 minutes) is used.")
+    private Integer maxWaitTime;
+
+    @Property("Max Connection Idle Time (ms)")
+    @Example("60000")
+    @Description("The maximum time in milliseconds a pooled connection can be idle before being closed, 0 means no limit. " +
+            "If empty, the value from the connection URL or the driver default (no limit) is used.")
+    private Integer maxConnectionIdleTime;
+
+    @Property("Max Connection Life Time (ms)")
+    @Example("1800000")
+    @Description("The maximum time in milliseconds a pooled connection can be alive before being closed, 0 means no limit. " +
+            "If empty, the value from the connection URL or the driver default (no limit) is used.")
+    private Integer maxConnectionLifeTime;
+
+    @Property("Connect Timeout (ms)")
+    @Hint("10000")
+    @Example("5000")
+    @Description("The time limit in milliseconds to establish a new connection to a server, 0 means no limit. " +
+            "If empty, the value from the connection URL or the driver default (10 seconds) is used.")
+    private Integer connectTimeout;
+
+    @Property("Socket Timeout (ms)")
+    @Example("30000")
+    @Description("The time limit in milliseconds to read a response from a server, 0 means no limit. " +
+            "If empty, the value from the connection URL or the driver default (no limit) is used.")
+    private Integer socketTimeout;
+
+    @Property("Heartbeat Frequency (ms)")
+    @Hint("10000")
+    @Example("5000")
+    @Description("The frequency in milliseconds the driver checks the state of each server of the cluster. " +
+            "If empty, the value from the connection URL or the driver default (10 seconds) is used.")
+    private Integer heartbeatFrequency;
+
+    @Property("Local Threshold (ms)")
+    @Hint("15")
+    @Example("30")
+    @Description("The latency window in milliseconds used to select among the eligible servers of a read preference: " +
+            "the read is sent to one of the servers whose round trip time is within this window of the nearest one. " +
+            "If empty, the value from the connection URL or the driver default (15 ms) is used.")
+    private Integer localThreshold;
+
+    @Property("Compressors")
+    @Hint("zstd,snappy,zlib")
+    @Example("zstd,zlib")
+    @Description("The comma separated list of compressors (snappy, zlib, zstd) to be used to compress the messages " +
+            "exchanged with the database, in order of preference. The first compressor supported by the server is used. " +
+            "Compression reduces the network traffic, e.g. of large documents returned by find operations, at the cost of CPU. " +
+            "zlib is provided by the JVM, snappy and zstd require the snappy-java and zstd-jni libraries. " +
+            "If empty, the value from the connection URL is used or the messages are not compressed.")
+    private String compressors;
+
+    @Property("Zlib Compression Level")
+    @Hint("6")
+    @Example("1")
+    @Description("The zlib compression level, from 0 (no compression) to 9 (best compression), or -1 for the zlib default. " +
+            "Lower levels use less CPU. If empty, the zlib default level is used.")
+    private Integer zlibCompressionLevel;
+
+    @Property("Warm Up Connections")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the connection is verified with a ping when the components using it are initialized, " +
+            "and the connection pool opens the min pool size connections before the first message is processed, " +
+            "so that the first messages after a deployment do not pay the connection, TLS and authentication cost.")
+    private Boolean warmUp;
+
+    @Property("Warm Up In Background")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "warmUp", propertyValue = "true")
+    @Description("If true, the connections are warmed up in the background and the components are initialized immediately: " +
+            "the messages received before the warm up completes are not delayed, they open the connections they need. " +
+            "If false, the initialization of the components waits until the connections are warmed up, " +
+            "and it fails if the database cannot be reached within the warm up timeout. " +
+            "A failed warm up is started again when the next component using this connection is initialized.")
+    private Boolean warmUpInBackground;
+
+    @Property("Warm Up Timeout (ms)")
+    @Hint("30000")
+    @Example("10000")
+    @DefaultValue("30000")
+    @When(propertyName = "warmUp", propertyValue = "true")
+    @Description("The maximum time in milliseconds the initialization of the components waits for the connections to be warmed up.")
+    private Integer warmUpTimeout;
+
     public String getConnectionURL() {
         return connectionURL;
     }
@@ -79,4 +186,116 @@ public class ConnectionConfiguration implements Implementor {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public Integer getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(Integer maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Integer getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(Integer minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    public Integer getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(Integer maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public Integer getMaxConnectionIdleTime() {
+        return maxConnectionIdleTime;
+    }
+
+    public void setMaxConnectionIdleTime(Integer maxConnectionIdleTime) {
+        this.maxConnectionIdleTime = maxConnectionIdleTime;
+    }
+
+    public Integer getMaxConnectionLifeTime() {
+        return maxConnectionLifeTime;
+    }
+
+    public void setMaxConnectionLifeTime(Integer maxConnectionLifeTime) {
+        this.maxConnectionLifeTime = maxConnectionLifeTime;
+    }
+
+    public Integer getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Integer connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Integer getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(Integer socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public Integer getHeartbeatFrequency() {
+        return heartbeatFrequency;
+    }
+
+    public void setHeartbeatFrequency(Integer heartbeatFrequency) {
+        this.heartbeatFrequency = heartbeatFrequency;
+    }
+
+    public Integer getLocalThreshold() {
+        return localThreshold;
+    }
+
+    public void setLocalThreshold(Integer localThreshold) {
+        this.localThreshold = localThreshold;
+    }
+
+    public String getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(String compressors) {
+        this.compressors = compressors;
+    }
+
+    public Integer getZlibCompressionLevel() {
+        return zlibCompressionLevel;
+    }
+
+    public void setZlibCompressionLevel(Integer zlibCompressionLevel) {
+        this.zlibCompressionLevel = zlibCompressionLevel;
+    }
+
+    public Boolean getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(Boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public Boolean getWarmUpInBackground() {
+        return warmUpInBackground;
+    }
+
+    public void setWarmUpInBackground(Boolean warmUpInBackground) {
+        this.warmUpInBackground = warmUpInBackground;
+    }
+
+    public Integer getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+
+    public void setWarmUpTimeout(Integer warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
 }
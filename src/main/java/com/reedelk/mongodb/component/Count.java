@@ -2,11 +2,11 @@ package com.reedelk.mongodb.component;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
 import com.reedelk.mongodb.internal.ClientFactory;
 import com.reedelk.mongodb.internal.attribute.CountAttributes;
-import com.reedelk.mongodb.internal.commons.DocumentUtils;
-import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.commons.CollectionHandles;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.ReadPreferenceUtils;
 import com.reedelk.mongodb.internal.exception.CountException;
 import com.reedelk.runtime.api.annotation.*;
 import com.reedelk.runtime.api.component.ProcessorSync;
@@ -16,14 +16,14 @@ import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.script.ScriptEngineService;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.bson.Document;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
 import static com.reedelk.mongodb.internal.commons.Messages.Count.COUNT_QUERY_NULL;
-import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
-import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
 
 @ModuleComponent("MongoDB Count")
 @ComponentOutput(
@@ -45,19 +45,37 @@ public class Count implements ProcessorSync {
             "Shared configurations use the same MongoDB client.")
     private ConnectionConfiguration connection;
 
+    @Property("Database")
+    @Hint("MyDatabase")
+    @Example("#[message.attributes().tenant]")
+    @Description("Sets the name of the database to be used for the count operation, it can be an expression. " +
+            "If empty, the database of the connection is used.")
+    private DynamicString database;
+
     @Property("Collection")
     @Hint("MyCollection")
     @Example("MyCollection")
-    @Description("Sets the name of the collection to be used for the count operation.")
-    private String collection;
+    @Description("Sets the name of the collection to be used for the count operation, it can be an expression.")
+    private DynamicString collection;
 
     @Property("Query Filter")
     @Hint("{ name: 'John' }")
     @Example("{ age: 35 } ")
     @Description("Sets the query filter to be applied to the count operation. " +
-            "If no query is present all the documents from the given collections will be counted.")
+            "If no query is present all the documents from the given collections will be counted. " +
+            "Placeholders bind message values without a script, e.g. { age: :payload.age }.")
     private DynamicObject query;
 
+    @Property("Read Preference")
+    @Description("Sets the read preference of the count operation; if empty the connection read preference is used.")
+    private ReadPreferenceConfiguration readPreference;
+
+    @Property("Read Concern")
+    @Example("MAJORITY")
+    @Description("Sets the read concern level of the count operation, overriding the one of the connection. " +
+            "If empty, the read concern from the connection URL is used.")
+    private ReadConcernLevel readConcern;
+
     @Reference
     ConverterService converterService;
     @Reference
@@ -66,39 +84,38 @@ public class Count implements ProcessorSync {
     ClientFactory clientFactory;
 
     private MongoClient client;
+    private CollectionHandles<Document> collectionHandles;
+    private QueryFilter queryFilter;
 
     @Override
     public void initialize() {
-        requireNotBlank(Delete.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(Count.class, collection, "MongoDB collection must not be empty");
+        ReadPreferenceUtils.validate(Count.class, readPreference);
         this.client = clientFactory.clientByConfig(this, connection);
+        this.collectionHandles = new CollectionHandles<>(client, connection.getDatabase(), database, collection,
+                CollectionHandles.DEFAULT_MAX_HANDLES, (mongoDatabase, collectionName) -> {
+                    MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collectionName);
+                    return mongoCollection
+                            .withReadPreference(ReadPreferenceUtils.from(mongoCollection.getReadPreference(), readPreference))
+                            .withReadConcern(ReadPreferenceUtils.from(mongoCollection.getReadConcern(), readConcern));
+                });
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new CountException(COUNT_QUERY_NULL.format(value)));
     }
 
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
-        MongoDatabase mongoDatabase = client.getDatabase(connection.getDatabase());
-        MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collection);
-
-        long count;
-
-
-        CountAttributes attributes;
-        if (isNotNullOrBlank(query)) {
-
-            Object evaluatedQuery = scriptService.evaluate(query, flowContext, message)
-                    .orElseThrow(() -> new CountException(COUNT_QUERY_NULL.format(query.value())));
-
-            Document countQuery = DocumentUtils.from(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
+        MongoCollection<Document> mongoCollection = collectionHandles.get(scriptService, flowContext, message);
+        String collection = mongoCollection.getNamespace().getCollectionName();
 
-            count = mongoCollection.countDocuments(countQuery);
+        // If the query filter is empty, all the documents are counted.
+        QueryFilter.Resolved countQuery = queryFilter.resolve(scriptService, flowContext, message);
 
-            attributes = new CountAttributes(collection, evaluatedQuery);
+        long count = countQuery == null ?
+                mongoCollection.countDocuments() :
+                mongoCollection.countDocuments(countQuery.getQuery());
 
-        } else {
-            count = mongoCollection.countDocuments();
-
-            attributes = new CountAttributes(collection, null);
-        }
+        CountAttributes attributes = new CountAttributes(collection, countQuery == null ? null : countQuery.getValue());
 
         return MessageBuilder.get(Count.class)
                 .attributes(attributes)
@@ -110,17 +127,30 @@ public class Count implements ProcessorSync {
     public void dispose() {
         clientFactory.dispose(this, connection);
         client = null;
+        collectionHandles = null;
     }
 
     public void setConnection(ConnectionConfiguration connection) {
         this.connection = connection;
     }
 
-    public void setCollection(String collection) {
+    public void setDatabase(DynamicString database) {
+        this.database = database;
+    }
+
+    public void setCollection(DynamicString collection) {
         this.collection = collection;
     }
 
     public void setQuery(DynamicObject query) {
         this.query = query;
     }
+
+    public void setReadPreference(ReadPreferenceConfiguration readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public void setReadConcern(ReadConcernLevel readConcern) {
+        this.readConcern = readConcern;
+    }
 }
@@ -1,14 +1,18 @@
 package com.reedelk.mongodb.component;
 
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.result.DeleteResult;
 import com.reedelk.mongodb.internal.ClientFactory;
 import com.reedelk.mongodb.internal.attribute.DeleteAttributes;
+import com.reedelk.mongodb.internal.commons.BatchedDelete;
+import com.reedelk.mongodb.internal.commons.CollectionHandles;
 import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
 import com.reedelk.mongodb.internal.commons.Unsupported;
 import com.reedelk.mongodb.internal.commons.Utils;
+import com.reedelk.mongodb.internal.commons.WriteConcernUtils;
 import com.reedelk.mongodb.internal.exception.DeleteException;
 import com.reedelk.runtime.api.annotation.*;
 import com.reedelk.runtime.api.component.ProcessorSync;
@@ -18,19 +22,28 @@ import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.script.ScriptEngineService;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static com.reedelk.mongodb.internal.commons.Messages.Delete.DELETE_QUERY_NULL;
-import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
 
 @ModuleComponent("MongoDB Delete (One/Many)")
 @ComponentOutput(
         attributes = DeleteAttributes.class,
-        payload = long.class,
-        description = "The number of deleted documents.")
+        payload = { long.class, String.class },
+        description = "The number of deleted documents, or the job id of the batched delete when it runs in the background.")
 @ComponentInput(
         payload = Object.class,
         description = "The input payload is used to evaluate the query filter expression.")
@@ -39,26 +52,38 @@ import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuratio
         "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
         "A static or dynamic query filter can be applied to the delete operation to <b>only</b> match the documents to be deleted." +
         "The many property allows to delete <b>all</b> the documents matching the query filter (Delete Many), " +
-        "otherwise just one document matching the query filter will be deleted (Delete One).")
+        "otherwise just one document matching the query filter will be deleted (Delete One). " +
+        "Very large Delete Many operations can be executed in batches, pausing between the batches, " +
+        "so that they do not overload the replication, optionally in the background.")
 public class Delete implements ProcessorSync {
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
     @DialogTitle("MongoDB Connection")
     @Property("Connection")
     @Description("MongoDB connection configuration to be used by this delete operation. " +
             "Shared configurations use the same MongoDB client.")
     private ConnectionConfiguration connection;
 
+    @Property("Database")
+    @Hint("MyDatabase")
+    @Example("#[message.attributes().tenant]")
+    @Description("Sets the name of the database to be used for the delete operation, it can be an expression. " +
+            "If empty, the database of the connection is used.")
+    private DynamicString database;
+
     @Property("Collection")
     @Hint("MyCollection")
     @Example("MyCollection")
-    @Description("Sets the name of the collection to be used for the delete operation.")
-    private String collection;
+    @Description("Sets the name of the collection to be used for the delete operation, it can be an expression.")
+    private DynamicString collection;
 
     @Property("Query Filter")
     @InitValue("{ _id: 2 }")
-    @DefaultValue("#[message.payload()")
+    @DefaultValue("#[message.payload()]")
     @Description("Sets the query filter to be applied to the delete operation. " +
-            "If no query is present the message payload will be used as query filter.")
+            "If no query is present the message payload will be used as query filter. " +
+            "Placeholders bind message values without a script, e.g. { _id: :payload.id }.")
     private DynamicObject query;
 
     @Property("Delete Many")
@@ -67,6 +92,45 @@ public class Delete implements ProcessorSync {
     @Description("If true deletes all the documents matching the query filter, otherwise only one will be delete.")
     private Boolean many;
 
+    @Property("Batched")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "many", propertyValue = "true")
+    @Description("If true, the documents matching the query filter are deleted in batches ordered by _id " +
+            "instead of with a single delete many operation. The attributes report the number of deleted documents and of batches. " +
+            "The batches are always acknowledged (w: 1 if the write concern is unacknowledged), since each batch needs the result of the previous one.")
+    private Boolean batched;
+
+    @Property("Batch Size")
+    @Hint("1000")
+    @Example("5000")
+    @DefaultValue("1000")
+    @When(propertyName = "batched", propertyValue = "true")
+    @Description("The maximum number of documents deleted by a single batch.")
+    private Integer batchSize;
+
+    @Property("Batch Pause (ms)")
+    @Hint("100")
+    @Example("500")
+    @DefaultValue("0")
+    @When(propertyName = "batched", propertyValue = "true")
+    @Description("The time in milliseconds to wait between two batches, which limits the rate of the deletes.")
+    private Integer batchPause;
+
+    @Property("Background")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "batched", propertyValue = "true")
+    @Description("If true, the batched delete runs in the background and the flow continues immediately: " +
+            "the payload is the job id of the delete and the attributes contain its progress when it was started. The background deletes of this component run one at a time " +
+            "and they are stopped when the component is disposed: the running delete completes its current batch " +
+            "and the deletes not started yet are cancelled.")
+    private Boolean background;
+
+    @Property("Write Concern")
+    @Description("Sets the write concern of the delete operation, overriding the one of the connection.")
+    private WriteConcernConfiguration writeConcern;
+
     @Reference
     ConverterService converterService;
     @Reference
@@ -75,30 +139,71 @@ public class Delete implements ProcessorSync {
     ClientFactory clientFactory;
 
     private MongoClient client;
+    private CollectionHandles<Document> collectionHandles;
+    private QueryFilter queryFilter;
+    private WriteConcern effectiveWriteConcern;
+    private ExecutorService backgroundExecutor;
+    // The running and queued background deletes by job id.
+    final ConcurrentMap<String, BatchedDelete> backgroundDeletes = new ConcurrentHashMap<>();
 
     @Override
     public void initialize() {
-        requireNotBlank(Delete.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(Delete.class, collection, "MongoDB collection must not be empty");
+        // A batch size of 0 would be an unlimited find, deleting all the documents in a single batch.
+        requireTrue(Delete.class, batchSize == null || batchSize > 0, "MongoDB delete batch size must be greater than 0");
+        requireTrue(Delete.class, batchPause == null || batchPause >= 0, "MongoDB delete batch pause must not be negative");
         this.client = clientFactory.clientByConfig(this, connection);
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new DeleteException(DELETE_QUERY_NULL.format(value)));
+        this.effectiveWriteConcern = WriteConcernUtils.from(
+                client.getDatabase(connection.getDatabase()).getWriteConcern(), writeConcern);
+        // The batched deletes need the deleted count of each batch, therefore they are acknowledged.
+        WriteConcern collectionWriteConcern = isBatched() && !effectiveWriteConcern.isAcknowledged() ?
+                WriteConcern.W1 :
+                effectiveWriteConcern;
+        this.collectionHandles = new CollectionHandles<>(client, connection.getDatabase(), database, collection,
+                CollectionHandles.DEFAULT_MAX_HANDLES, (mongoDatabase, collectionName) -> mongoDatabase
+                        .getCollection(collectionName)
+                        .withWriteConcern(collectionWriteConcern));
+        if (isBatched() && Utils.isTrue(background)) {
+            this.backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mongodb-batched-delete");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
-        MongoDatabase mongoDatabase = client.getDatabase(connection.getDatabase());
-        MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collection);
+        MongoCollection<Document> mongoCollection = collectionHandles.get(scriptService, flowContext, message);
+
+        Object evaluatedQuery;
+        Bson deleteQuery;
+
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolve(scriptService, flowContext, message);
+        if (resolvedQuery != null) {
+            evaluatedQuery = resolvedQuery.getValue();
+            deleteQuery = resolvedQuery.getQuery();
 
-        Object evaluatedQuery = Utils.evaluateOrUsePayloadWhenEmpty(query, scriptService, flowContext, message,
-                () -> new DeleteException(DELETE_QUERY_NULL.format(query.value())));
+        } else {
+            // If the query filter is empty, the message payload is used as query filter.
+            evaluatedQuery = Utils.evaluateOrUsePayloadWhenEmpty(query, scriptService, flowContext, message,
+                    () -> new DeleteException(DELETE_QUERY_NULL.format(query.value())));
+            deleteQuery = DocumentUtils.toBson(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
+        }
 
-        Document deleteQuery = DocumentUtils.from(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
+        if (isBatched()) {
+            return deleteBatched(mongoCollection, deleteQuery, evaluatedQuery);
+        }
 
         DeleteResult deleteResult = Utils.isTrue(many) ?
                 mongoCollection.deleteMany(deleteQuery) :
                 mongoCollection.deleteOne(deleteQuery);
 
-        long deletedCount = deleteResult.getDeletedCount();
+        // The deleted count of an unacknowledged delete is not known.
         boolean acknowledged = deleteResult.wasAcknowledged();
+        long deletedCount = acknowledged ? deleteResult.getDeletedCount() : 0;
 
         DeleteAttributes attributes = new DeleteAttributes(deletedCount, acknowledged, evaluatedQuery);
 
@@ -110,15 +215,54 @@ public class Delete implements ProcessorSync {
 
     @Override
     public void dispose() {
+        if (backgroundExecutor != null) {
+            // Cancelled first, so that the queued deletes dropped by the shutdown complete their result.
+            backgroundDeletes.values().forEach(BatchedDelete::cancel);
+            backgroundExecutor.shutdownNow();
+            backgroundExecutor = null;
+        }
         clientFactory.dispose(this, connection);
         client = null;
+        collectionHandles = null;
+    }
+
+    private Message deleteBatched(MongoCollection<Document> mongoCollection, Bson deleteQuery, Object evaluatedQuery) {
+        BatchedDelete batchedDelete = new BatchedDelete(mongoCollection, deleteQuery,
+                Optional.ofNullable(batchSize).orElse(DEFAULT_BATCH_SIZE),
+                Optional.ofNullable(batchPause).orElse(0));
+        boolean acknowledged = mongoCollection.getWriteConcern().isAcknowledged();
+
+        if (backgroundExecutor != null) {
+            backgroundDeletes.put(batchedDelete.getId(), batchedDelete);
+            batchedDelete.getResult().whenComplete((deletedCount, exception) -> backgroundDeletes.remove(batchedDelete.getId()));
+            backgroundExecutor.execute(batchedDelete::run);
+            // The delete itself is not exposed to the flow: the payload contains its job id only.
+            return MessageBuilder.get(Delete.class)
+                    .withJavaObject(batchedDelete.getId())
+                    .attributes(new DeleteAttributes(batchedDelete, acknowledged, evaluatedQuery))
+                    .build();
+        }
+
+        long deletedCount = batchedDelete.run();
+        return MessageBuilder.get(Delete.class)
+                .withJavaObject(deletedCount)
+                .attributes(new DeleteAttributes(batchedDelete, acknowledged, evaluatedQuery))
+                .build();
+    }
+
+    private boolean isBatched() {
+        return Utils.isTrue(many) && Utils.isTrue(batched);
     }
 
     public void setConnection(ConnectionConfiguration connection) {
         this.connection = connection;
     }
 
-    public void setCollection(String collection) {
+    public void setDatabase(DynamicString database) {
+        this.database = database;
+    }
+
+    public void setCollection(DynamicString collection) {
         this.collection = collection;
     }
 
@@ -129,4 +273,24 @@ public class Delete implements ProcessorSync {
     public void setMany(Boolean many) {
         this.many = many;
     }
+
+    public void setBatched(Boolean batched) {
+        this.batched = batched;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchPause(Integer batchPause) {
+        this.batchPause = batchPause;
+    }
+
+    public void setBackground(Boolean background) {
+        this.background = background;
+    }
+
+    public void setWriteConcern(WriteConcernConfiguration writeConcern) {
+        this.writeConcern = writeConcern;
+    }
 }
@@ -3,12 +3,21 @@ package com.reedelk.mongodb.component;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import com.reedelk.mongodb.internal.ClientFactory;
 import com.reedelk.mongodb.internal.attribute.FindAttributes;
+import com.reedelk.mongodb.internal.commons.CollectionHandles;
+import com.reedelk.mongodb.internal.commons.DocumentStream;
 import com.reedelk.mongodb.internal.commons.DocumentUtils;
-import com.reedelk.mongodb.internal.commons.ObjectIdUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.ReadPreferenceUtils;
+import com.reedelk.mongodb.internal.commons.JsonArrayEncoder;
+import com.reedelk.mongodb.internal.commons.PartitionedScan;
+import com.reedelk.mongodb.internal.commons.RawDocumentMap;
+import com.reedelk.mongodb.internal.commons.StaticDocument;
 import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.commons.Utils;
 import com.reedelk.mongodb.internal.exception.FindException;
 import com.reedelk.runtime.api.annotation.*;
 import com.reedelk.runtime.api.component.ProcessorSync;
@@ -18,27 +27,40 @@ import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.message.content.MimeType;
 import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicInteger;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static com.reedelk.mongodb.internal.commons.Messages.Find.FIND_QUERY_NULL;
-import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.mongodb.internal.commons.ObjectIdUtils.OBJECT_ID_PROPERTY;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
 import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
 
 @ModuleComponent("MongoDB Find")
 @ComponentOutput(
         attributes = FindAttributes.class,
-        payload = { List.class, String.class },
-        description = "A list of Objects representing the documents found or a JSON string with the documents found if the output mime type was application/json.")
+        payload = { List.class, String.class, Publisher.class },
+        description = "A list of Objects representing the documents found or a JSON string with the documents found if the output mime type was application/json. " +
+                "If streaming is enabled, a stream of Objects or a stream of JSON string chunks.")
 @ComponentInput(
         payload = Object.class,
         description = "The input payload is used to evaluate the query filter expression.")
@@ -49,20 +71,35 @@ import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank
         "This component allows to specify the mime type of the output. " +
         "If you need to further process the result set in a script, it is recommended to output 'application/java' " +
         "in order to avoid further conversion from JSON to Object. If you need the result as is, then keep " +
-        "'application/json' as output mime type.")
+        "'application/json' as output mime type. " +
+        "Projection, sort, skip and limit can be used to let the database return only the documents and fields needed. " +
+        "When streaming is enabled, the documents are streamed from the database cursor as soon as they are fetched, " +
+        "so that very large result sets do not have to be loaded into memory. " +
+        "When parallel scan is enabled, the collection is split into _id ranges which are read concurrently.")
 public class Find implements ProcessorSync {
 
+    // Maximum number of documents read ahead from each partition of an ordered
+    // parallel scan while waiting for the previous partitions to be streamed.
+    private static final int PARALLEL_SCAN_PREFETCH = 1000;
+
     @DialogTitle("MongoDB Connection")
     @Property("Connection")
     @Description("MongoDB connection configuration to be used by this find operation. " +
             "Shared configurations use the same MongoDB client.")
     private ConnectionConfiguration connection;
 
+    @Property("Database")
+    @Hint("MyDatabase")
+    @Example("#[message.attributes().tenant]")
+    @Description("Sets the name of the database to be used for the find operation, it can be an expression. " +
+            "If empty, the database of the connection is used.")
+    private DynamicString database;
+
     @Property("Collection")
     @Hint("MyCollection")
     @Example("MyCollection")
-    @Description("Sets the name of the collection to be used for the find operation.")
-    private String collection;
+    @Description("Sets the name of the collection to be used for the find operation, it can be an expression.")
+    private DynamicString collection;
 
     @Property("Query Filter")
     @Hint("{ \"name.last\": \"Hopper\" }")
@@ -76,12 +113,61 @@ public class Find implements ProcessorSync {
             "   birth: { $gt: new Date('1920-01-01') },\n" +
             "   death: { $exists: false }\n" +
             "}</li>" +
+            "<li>{ customerId: :attributes.id }</li>" +
             "<li><code>context.myFindFilter</code></li>" +
             "</ul>")
     @Description("Sets the query filter to be applied to the find operation. " +
-            "If no filter is present all the documents from the given collection will be retrieved.")
+            "If no filter is present all the documents from the given collection will be retrieved. " +
+            "Placeholders bind message values without a script, e.g. { status: :status }.")
     private DynamicObject query;
 
+    @Property("Projection")
+    @Hint("{ name: 1, surname: 1, _id: 0 }")
+    @Example("<ul>" +
+            "<li>{ name: 1, surname: 1 }</li>" +
+            "<li>{ name: 1, _id: 0 }</li>" +
+            "<li>{ address: 0 }</li>" +
+            "</ul>")
+    @Description("Sets the projection document specifying the fields to return in the documents found. " +
+            "If no projection is present all the fields of the documents found will be returned.")
+    private DynamicObject projection;
+
+    @Property("Sort")
+    @Hint("{ age: -1 }")
+    @Example("<ul>" +
+            "<li>{ age: -1 }</li>" +
+            "<li>{ \"name.last\": 1, age: -1 }</li>" +
+            "</ul>")
+    @Description("Sets the sort criteria to apply to the documents found: 1 for ascending order, -1 for descending order. " +
+            "If no sort is present the documents are returned in natural order.")
+    private DynamicObject sort;
+
+    @Property("Skip")
+    @Hint("10")
+    @Example("10")
+    @Description("Sets the number of documents to skip before returning the documents found.")
+    private DynamicInteger skip;
+
+    @Property("Limit")
+    @Hint("100")
+    @Example("100")
+    @Description("Sets the maximum number of documents to return. If no limit is present all the documents found will be returned.")
+    private DynamicInteger limit;
+
+    @Property("Batch Size")
+    @Hint("500")
+    @Example("500")
+    @Description("Sets the number of documents to return per batch from the database cursor. " +
+            "If no batch size is present the database default batch size will be used.")
+    private Integer batchSize;
+
+    @Property("Max Time (ms)")
+    @Hint("5000")
+    @Example("5000")
+    @Description("Sets the maximum execution time on the server for the find operation in milliseconds. " +
+            "If no max time is present the find operation does not time out.")
+    private Long maxTime;
+
     @Property("Out mime type")
     @DefaultValue(MimeType.AsString.APPLICATION_JSON)
     @Combo(comboValues = {
@@ -94,6 +180,50 @@ public class Find implements ProcessorSync {
             "of the results.")
     private String mimeType;
 
+    @Property("Lazy Decoding")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "mimeType", propertyValue = MimeType.AsString.APPLICATION_JAVA)
+    @Description("If true, each document found is returned as a read only Map which decodes " +
+            "the document fields only when they are accessed. " +
+            "Use this option when only a few fields of large documents are used by the following components.")
+    private Boolean lazyDecoding;
+
+    @Property("Streaming")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true the documents found are streamed from the database cursor batch by batch " +
+            "instead of being all loaded into memory before the output message is created. " +
+            "The cursor is closed when the stream is completely consumed, when an error occurs or when the stream is cancelled.")
+    private Boolean streaming;
+
+    @Property("Parallel Scan Partitions")
+    @Hint("8")
+    @Example("8")
+    @Description("If greater than one, the collection is split into at most the given number of _id ranges " +
+            "which are read concurrently, each one with its own cursor. The _id range boundaries are computed " +
+            "from a random sample of the collection _id values. The query filter and projection are applied to each range. " +
+            "Use this option to speed up the read of very large collections. " +
+            "Parallel scan cannot be used together with sort, skip and limit.")
+    private Integer parallelScanPartitions;
+
+    @Property("Parallel Scan Ordered")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true the documents read by a parallel scan are returned range after range, " +
+            "each range sorted by _id. If false the documents are returned as soon as they are read from any of the ranges.")
+    private Boolean parallelScanOrdered;
+
+    @Property("Read Preference")
+    @Description("Sets the read preference of the find operation; if empty the connection read preference is used.")
+    private ReadPreferenceConfiguration readPreference;
+
+    @Property("Read Concern")
+    @Example("MAJORITY")
+    @Description("Sets the read concern level of the find operation, overriding the one of the connection. " +
+            "If empty, the read concern from the connection URL is used.")
+    private ReadConcernLevel readConcern;
+
     @Reference
     ConverterService converterService;
     @Reference
@@ -102,68 +232,85 @@ public class Find implements ProcessorSync {
     ClientFactory clientFactory;
 
     private MongoClient client;
+    private CollectionHandles<Document> collectionHandles;
+    private Scheduler parallelScanScheduler;
+    private QueryFilter queryFilter;
+    private Bson staticProjection;
+    private Bson staticSort;
 
     @Override
     public void initialize() {
-        requireNotBlank(Find.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(Find.class, collection, "MongoDB collection must not be empty");
+        ReadPreferenceUtils.validate(Find.class, readPreference);
         this.client = clientFactory.clientByConfig(this, connection);
+        this.collectionHandles = new CollectionHandles<>(client, connection.getDatabase(), database, collection,
+                CollectionHandles.DEFAULT_MAX_HANDLES, (mongoDatabase, collectionName) -> {
+                    MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collectionName);
+                    return mongoCollection
+                            .withReadPreference(ReadPreferenceUtils.from(mongoCollection.getReadPreference(), readPreference))
+                            .withReadConcern(ReadPreferenceUtils.from(mongoCollection.getReadConcern(), readConcern));
+                });
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new FindException(FIND_QUERY_NULL.format(value)));
+        this.staticProjection = StaticDocument.compile(converterService, projection, Unsupported::queryType);
+        this.staticSort = StaticDocument.compile(converterService, sort, Unsupported::queryType);
+        if (isParallelScan()) {
+            requireTrue(Find.class, isNullOrBlank(sort) && isNullOrBlank(skip) && isNullOrBlank(limit),
+                    "MongoDB parallel scan cannot be used together with sort, skip and limit");
+            // The ranges of all the messages processed by this component
+            // are read by a pool bounded to the number of partitions.
+            this.parallelScanScheduler = Schedulers.fromExecutorService(new ForkJoinPool(parallelScanPartitions));
+        }
     }
 
-    @SuppressWarnings("rawtypes")
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
-        MongoDatabase mongoDatabase = client.getDatabase(connection.getDatabase());
-        MongoCollection<Document> mongoDatabaseCollection = mongoDatabase.getCollection(collection);
-
-        FindIterable<Document> documents;
-
-        FindAttributes attributes;
+        MongoCollection<Document> mongoCollection = collectionHandles.get(scriptService, flowContext, message);
+        String collection = mongoCollection.getNamespace().getCollectionName();
 
-        if (isNotNullOrBlank(query)) {
-            // Find documents matching the given filter. The filter could be a JSON
-            // string, a Map or a Pair type. If the filter is not one of these objects
-            // we throw an exception.
-            Object evaluatedQuery = scriptService.evaluate(query, flowContext, message)
-                    .orElseThrow(() -> new FindException(FIND_QUERY_NULL.format(query.value())));
+        // If the query filter is not given, we find all the documents in the collection.
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolve(scriptService, flowContext, message);
+        Bson findQuery = resolvedQuery == null ? new Document() : resolvedQuery.getQuery();
 
-            Document findQuery = DocumentUtils.from(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
-            documents = mongoDatabaseCollection.find(findQuery);
-
-            attributes = new FindAttributes(collection, evaluatedQuery);
-
-        } else {
-            // Filter was not given, we find all the documents in the collection.
-            documents = mongoDatabaseCollection.find();
-
-            attributes = new FindAttributes(collection, null);
-        }
+        FindAttributes attributes = new FindAttributes(collection, resolvedQuery == null ? null : resolvedQuery.getValue());
 
         MimeType parsedMimeType = MimeType.parse(this.mimeType, MimeType.APPLICATION_JSON);
 
         // The output message depends on the wanted mime type.
         if (MimeType.APPLICATION_JSON.equals(parsedMimeType)) {
+
+            // The documents are not decoded: the raw BSON of each
+            // document is encoded directly into the JSON output.
+            if (Utils.isTrue(streaming)) {
+                // application/json -> Stream of JSON string chunks
+                Flux<String> jsonDocuments =
+                        stream(mongoCollection, findQuery, RawBsonDocument.class, flowContext, message)
+                                .map(JsonArrayEncoder::encode);
+                Publisher<String> output = DocumentStream.asJsonArray(jsonDocuments);
+                return MessageBuilder.get(Find.class)
+                        .withJson(output)
+                        .attributes(attributes)
+                        .build();
+            }
+
             // application/json -> String
-            List<String> output = new ArrayList<>();
-            documents.forEach((Consumer<Document>) document ->
-                    output.add(document.toJson()));
+            Iterable<RawBsonDocument> documents =
+                    iterable(mongoCollection, findQuery, RawBsonDocument.class, flowContext, message);
+            String output = JsonArrayEncoder.encode(documents);
             return MessageBuilder.get(Find.class)
-                    .withJson(output.toString())
+                    .withJson(output)
                     .attributes(attributes)
                     .build();
 
+        } else if (Utils.isTrue(lazyDecoding)) {
+            // application/java -> Lazily decoded Map or List
+            return javaOutput(mongoCollection, findQuery, RawBsonDocument.class,
+                    RawDocumentMap::new, attributes, flowContext, message);
+
         } else {
             // application/java -> Map or List
-            List<Map> output = new ArrayList<>();
-            documents.forEach((Consumer<Document>) document -> {
-                ObjectIdUtils.replace(document);
-                Map<String, Object> wrapped = new HashMap<>(document); // We wrap it so that it uses the to string of java.Map instead of Document.
-                output.add(wrapped);
-            });
-            return MessageBuilder.get(Find.class)
-                    .withList(output, Map.class)
-                    .attributes(attributes)
-                    .build();
+            return javaOutput(mongoCollection, findQuery, Document.class,
+                    DocumentUtils::toMap, attributes, flowContext, message);
         }
     }
 
@@ -171,13 +318,138 @@ public class Find implements ProcessorSync {
     public void dispose() {
         clientFactory.dispose(this, connection);
         client = null;
+        collectionHandles = null;
+        if (parallelScanScheduler != null) {
+            parallelScanScheduler.dispose();
+            parallelScanScheduler = null;
+        }
+    }
+
+    private boolean isParallelScan() {
+        return parallelScanPartitions != null && parallelScanPartitions > 1;
+    }
+
+    // The cursors are opened only when the stream is subscribed.
+    private <T> Flux<T> stream(MongoCollection<Document> mongoDatabaseCollection,
+                               Bson findQuery,
+                               Class<T> documentClass,
+                               FlowContext flowContext,
+                               Message message) {
+        return isParallelScan() ?
+                parallelScan(mongoDatabaseCollection, findQuery, documentClass, PARALLEL_SCAN_PREFETCH, flowContext, message) :
+                DocumentStream.from(find(mongoDatabaseCollection, findQuery, documentClass, flowContext, message), Function.identity());
+    }
+
+    private <T> Iterable<T> iterable(MongoCollection<Document> mongoDatabaseCollection,
+                                     Bson findQuery,
+                                     Class<T> documentClass,
+                                     FlowContext flowContext,
+                                     Message message) {
+        // All the documents are loaded into memory anyway, therefore
+        // the ranges of an ordered parallel scan are read up to the end
+        // concurrently instead of waiting for the previous ranges.
+        return isParallelScan() ?
+                parallelScan(mongoDatabaseCollection, findQuery, documentClass, Integer.MAX_VALUE, flowContext, message).toIterable() :
+                find(mongoDatabaseCollection, findQuery, documentClass, flowContext, message);
+    }
+
+    private <T> Flux<T> parallelScan(MongoCollection<Document> mongoDatabaseCollection,
+                                     Bson findQuery,
+                                     Class<T> documentClass,
+                                     int prefetch,
+                                     FlowContext flowContext,
+                                     Message message) {
+        // The partitions are computed with a $sample of the collection: deferred so that a streamed
+        // output does not run it in apply, but only when (and each time) the stream is subscribed.
+        return Flux.defer(() -> {
+            boolean ordered = Utils.isTrue(parallelScanOrdered);
+            List<Flux<T>> partitions = new ArrayList<>();
+            for (Bson range : PartitionedScan.partitions(mongoDatabaseCollection, parallelScanPartitions)) {
+                FindIterable<T> documents = find(mongoDatabaseCollection, Filters.and(findQuery, range), documentClass, flowContext, message);
+                if (ordered) {
+                    documents.sort(Sorts.ascending(OBJECT_ID_PROPERTY));
+                }
+                partitions.add(DocumentStream.from(documents, Function.<T>identity()).subscribeOn(parallelScanScheduler));
+            }
+            return PartitionedScan.merge(partitions, ordered, prefetch);
+        });
+    }
+
+    private <T> FindIterable<T> find(MongoCollection<Document> mongoDatabaseCollection,
+                                     Bson findQuery,
+                                     Class<T> documentClass,
+                                     FlowContext flowContext,
+                                     Message message) {
+
+        FindIterable<T> documents = mongoDatabaseCollection.find(findQuery, documentClass);
+
+        // The projection, sort, skip and limit options are applied by the
+        // server, so that only the wanted documents and fields are returned.
+        if (staticProjection != null) {
+            documents.projection(staticProjection);
+        } else if (isNotNullOrBlank(projection)) {
+            scriptService.evaluate(projection, flowContext, message)
+                    .map(evaluated -> DocumentUtils.toBson(converterService, evaluated, Unsupported.queryType(evaluated)))
+                    .ifPresent(documents::projection);
+        }
+        if (staticSort != null) {
+            documents.sort(staticSort);
+        } else if (isNotNullOrBlank(sort)) {
+            scriptService.evaluate(sort, flowContext, message)
+                    .map(evaluated -> DocumentUtils.toBson(converterService, evaluated, Unsupported.queryType(evaluated)))
+                    .ifPresent(documents::sort);
+        }
+        if (isNotNullOrBlank(skip)) {
+            scriptService.evaluate(skip, flowContext, message).ifPresent(documents::skip);
+        }
+        if (isNotNullOrBlank(limit)) {
+            scriptService.evaluate(limit, flowContext, message).ifPresent(documents::limit);
+        }
+        if (batchSize != null) {
+            documents.batchSize(batchSize);
+        }
+        if (maxTime != null) {
+            documents.maxTime(maxTime, TimeUnit.MILLISECONDS);
+        }
+        return documents;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private <T> Message javaOutput(MongoCollection<Document> mongoDatabaseCollection,
+                                   Bson findQuery,
+                                   Class<T> documentClass,
+                                   Function<T, Map<String, Object>> mapper,
+                                   FindAttributes attributes,
+                                   FlowContext flowContext,
+                                   Message message) {
+        if (Utils.isTrue(streaming)) {
+            // application/java -> Stream of Map
+            Publisher<Map> output = stream(mongoDatabaseCollection, findQuery, documentClass, flowContext, message)
+                    .map(mapper::apply);
+            return MessageBuilder.get(Find.class)
+                    .withStream(output, Map.class)
+                    .attributes(attributes)
+                    .build();
+        }
+
+        List<Map> output = new ArrayList<>();
+        iterable(mongoDatabaseCollection, findQuery, documentClass, flowContext, message)
+                .forEach(document -> output.add(mapper.apply(document)));
+        return MessageBuilder.get(Find.class)
+                .withList(output, Map.class)
+                .attributes(attributes)
+                .build();
     }
 
     public void setConnection(ConnectionConfiguration connection) {
         this.connection = connection;
     }
 
-    public void setCollection(String collection) {
+    public void setDatabase(DynamicString database) {
+        this.database = database;
+    }
+
+    public void setCollection(DynamicString collection) {
         this.collection = collection;
     }
 
@@ -185,7 +457,55 @@ public class Find implements ProcessorSync {
         this.query = query;
     }
 
+    public void setProjection(DynamicObject projection) {
+        this.projection = projection;
+    }
+
+    public void setSort(DynamicObject sort) {
+        this.sort = sort;
+    }
+
+    public void setSkip(DynamicInteger skip) {
+        this.skip = skip;
+    }
+
+    public void setLimit(DynamicInteger limit) {
+        this.limit = limit;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setMaxTime(Long maxTime) {
+        this.maxTime = maxTime;
+    }
+
     public void setMimeType(String mimeType) {
         this.mimeType = mimeType;
     }
+
+    public void setLazyDecoding(Boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+    }
+
+    public void setStreaming(Boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public void setParallelScanPartitions(Integer parallelScanPartitions) {
+        this.parallelScanPartitions = parallelScanPartitions;
+    }
+
+    public void setParallelScanOrdered(Boolean parallelScanOrdered) {
+        this.parallelScanOrdered = parallelScanOrdered;
+    }
+
+    public void setReadPreference(ReadPreferenceConfiguration readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public void setReadConcern(ReadConcernLevel readConcern) {
+        this.readConcern = readConcern;
+    }
 }
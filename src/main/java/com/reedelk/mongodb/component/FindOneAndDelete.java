@@ -0,0 +1,166 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.FindAttributes;
+import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.StaticDocument;
+import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.exception.FindOneAndDeleteException;
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.ProcessorSync;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.reedelk.mongodb.internal.commons.Messages.FindOneAndDelete.FIND_ONE_AND_DELETE_QUERY_NULL;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+@ModuleComponent("MongoDB Find One And Delete")
+@Component(service = FindOneAndDelete.class, scope = ServiceScope.PROTOTYPE)
+@ComponentOutput(
+        attributes = FindAttributes.class,
+        payload = Map.class,
+        description = "The deleted document, or empty if no document matched.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the query filter expression.")
+@Description("Finds the first document matching the query filter and deletes it with a single atomic operation. " +
+        "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
+        "No other operation can modify the document between the find and the delete, " +
+        "e.g. a message document can be taken from a queue collection by one consumer only with a single round trip. " +
+        "The sort defines which document is deleted when more documents match the query filter. " +
+        "The payload contains the deleted document.")
+public class FindOneAndDelete implements ProcessorSync {
+
+    @DialogTitle("MongoDB Connection")
+    @Property("Connection")
+    @Description("MongoDB connection configuration to be used by this find one and delete operation. " +
+            "Shared configurations use the same MongoDB client.")
+    private ConnectionConfiguration connection;
+
+    @Property("Collection")
+    @Mandatory
+    @Hint("MyCollection")
+    @Example("MyCollection")
+    @Description("Sets the name of the collection to be used for the find one and delete operation.")
+    private String collection;
+
+    @Property("Query Filter")
+    @Hint("{ status: 'ready' }")
+    @InitValue("{ status: 'ready' }")
+    @Example("<ul>" +
+            "<li>{ status: 'ready' }</li>" +
+            "<li>{ _id: :id }</li>" +
+            "</ul>")
+    @Description("Sets the selection criteria for the document to be deleted. It could be a static or dynamic value. " +
+            "Placeholders bind message values without a script, e.g. { status: :context.status }.")
+    private DynamicObject query;
+
+    @Property("Projection")
+    @Hint("{ name: 1, surname: 1, _id: 0 }")
+    @Example("{ name: 1, _id: 0 }")
+    @Description("Sets the projection document specifying the fields of the returned document. " +
+            "If no projection is present all the fields of the document will be returned.")
+    private DynamicObject projection;
+
+    @Property("Sort")
+    @Hint("{ priority: -1 }")
+    @Example("{ priority: -1, createdAt: 1 }")
+    @Description("Sets the sort criteria which determines the document to be deleted when more documents match the query filter.")
+    private DynamicObject sort;
+
+    @Reference
+    ConverterService converterService;
+    @Reference
+    ScriptEngineService scriptService;
+    @Reference
+    ClientFactory clientFactory;
+
+    private MongoClient client;
+    private MongoCollection<Document> mongoCollection;
+    private QueryFilter queryFilter;
+    private Bson staticProjection;
+    private Bson staticSort;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(FindOneAndDelete.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(FindOneAndDelete.class, query, "Query filter must not be empty");
+        this.client = clientFactory.clientByConfig(this, connection);
+        this.mongoCollection = client.getDatabase(connection.getDatabase()).getCollection(collection);
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new FindOneAndDeleteException(FIND_ONE_AND_DELETE_QUERY_NULL.format(value)));
+        this.staticProjection = StaticDocument.compile(converterService, projection, Unsupported::queryType);
+        this.staticSort = StaticDocument.compile(converterService, sort, Unsupported::queryType);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolveRequired(scriptService, flowContext, message);
+        Bson findQuery = resolvedQuery.getQuery();
+
+        FindOneAndDeleteOptions options = new FindOneAndDeleteOptions();
+        evaluateOption(projection, staticProjection, flowContext, message).ifPresent(options::projection);
+        evaluateOption(sort, staticSort, flowContext, message).ifPresent(options::sort);
+
+        Document deleted = mongoCollection.findOneAndDelete(findQuery, options);
+
+        FindAttributes attributes = new FindAttributes(collection, resolvedQuery.getValue());
+
+        // The payload is empty if no document matched the query filter.
+        return deleted == null ?
+                MessageBuilder.get(FindOneAndDelete.class).empty().attributes(attributes).build() :
+                MessageBuilder.get(FindOneAndDelete.class).withJavaObject(DocumentUtils.toMap(deleted)).attributes(attributes).build();
+    }
+
+    @Override
+    public void dispose() {
+        clientFactory.dispose(this, connection);
+        client = null;
+        mongoCollection = null;
+    }
+
+    private Optional<Bson> evaluateOption(DynamicObject option, Bson staticOption, FlowContext flowContext, Message message) {
+        if (staticOption != null) return Optional.of(staticOption);
+        if (isNullOrBlank(option)) return Optional.empty();
+        return scriptService.evaluate(option, flowContext, message)
+                .map(evaluated -> DocumentUtils.toBson(converterService, evaluated, Unsupported.queryType(evaluated)));
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setQuery(DynamicObject query) {
+        this.query = query;
+    }
+
+    public void setProjection(DynamicObject projection) {
+        this.projection = projection;
+    }
+
+    public void setSort(DynamicObject sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,219 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.FindAttributes;
+import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.StaticDocument;
+import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.exception.FindOneAndReplaceException;
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.ProcessorSync;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.reedelk.mongodb.internal.commons.Messages.FindOneAndReplace.FIND_ONE_AND_REPLACE_DOCUMENT_EMPTY;
+import static com.reedelk.mongodb.internal.commons.Messages.FindOneAndReplace.FIND_ONE_AND_REPLACE_QUERY_NULL;
+import static com.reedelk.mongodb.internal.commons.Utils.evaluateOrUsePayloadWhenEmpty;
+import static com.reedelk.mongodb.internal.commons.Utils.isTrue;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+@ModuleComponent("MongoDB Find One And Replace")
+@Component(service = FindOneAndReplace.class, scope = ServiceScope.PROTOTYPE)
+@ComponentOutput(
+        attributes = FindAttributes.class,
+        payload = Map.class,
+        description = "The document matching the query filter before or after the replacement, or empty if no document matched.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the query filter and the replacement document expressions.")
+@Description("Finds the first document matching the query filter and replaces it with a single atomic operation. " +
+        "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
+        "No other operation can modify the document between the find and the replacement. " +
+        "The sort defines which document is replaced when more documents match the query filter. " +
+        "The payload contains the document before the replacement, or after the replacement if return replaced document is true.")
+public class FindOneAndReplace implements ProcessorSync {
+
+    @DialogTitle("MongoDB Connection")
+    @Property("Connection")
+    @Description("MongoDB connection configuration to be used by this find one and replace operation. " +
+            "Shared configurations use the same MongoDB client.")
+    private ConnectionConfiguration connection;
+
+    @Property("Collection")
+    @Mandatory
+    @Hint("MyCollection")
+    @Example("MyCollection")
+    @Description("Sets the name of the collection to be used for the find one and replace operation.")
+    private String collection;
+
+    @Property("Query Filter")
+    @Hint("{ _id: 1 }")
+    @InitValue("{ _id: 1 }")
+    @Example("<ul>" +
+            "<li>{ _id: 1 }</li>" +
+            "<li>{ _id: :id }</li>" +
+            "</ul>")
+    @Description("Sets the selection criteria for the document to be replaced. It could be a static or dynamic value. " +
+            "Placeholders bind message values without a script, e.g. { _id: :id }.")
+    private DynamicObject query;
+
+    @Property("Replacement Document")
+    @InitValue("#[message.payload()]")
+    @DefaultValue("#[message.payload()]")
+    @Example("{ name: 'John', surname: 'Doe', status: 'active' }")
+    @Description("The document replacing the document matching the query filter. " +
+            "It must not contain update operators, and its _id, if present, must be the same of the replaced document.")
+    private DynamicObject document;
+
+    @Property("Projection")
+    @Hint("{ name: 1, surname: 1, _id: 0 }")
+    @Example("{ name: 1, _id: 0 }")
+    @Description("Sets the projection document specifying the fields of the returned document. " +
+            "If no projection is present all the fields of the document will be returned.")
+    private DynamicObject projection;
+
+    @Property("Sort")
+    @Hint("{ priority: -1 }")
+    @Example("{ priority: -1, createdAt: 1 }")
+    @Description("Sets the sort criteria which determines the document to be replaced when more documents match the query filter.")
+    private DynamicObject sort;
+
+    @Property("Upsert")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the replacement document is inserted when no document matches the query filter.")
+    private Boolean upsert;
+
+    @Property("Return Replaced Document")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the payload contains the replacement document, otherwise the document before the replacement.")
+    private Boolean returnReplaced;
+
+    @Reference
+    ConverterService converterService;
+    @Reference
+    ScriptEngineService scriptService;
+    @Reference
+    ClientFactory clientFactory;
+
+    private MongoClient client;
+    private MongoCollection<Document> mongoCollection;
+    private QueryFilter queryFilter;
+    private Document staticDocument;
+    private Bson staticProjection;
+    private Bson staticSort;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(FindOneAndReplace.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(FindOneAndReplace.class, query, "Query filter must not be empty");
+        this.client = clientFactory.clientByConfig(this, connection);
+        this.mongoCollection = client.getDatabase(connection.getDatabase()).getCollection(collection);
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new FindOneAndReplaceException(FIND_ONE_AND_REPLACE_QUERY_NULL.format(value)));
+        // The replacement document is parsed once and it is never modified by the driver.
+        this.staticDocument = isNullOrBlank(document) || document.isScript() ?
+                null :
+                DocumentUtils.from(converterService, document.value(), Unsupported.documentType(document.value()));
+        this.staticProjection = StaticDocument.compile(converterService, projection, Unsupported::queryType);
+        this.staticSort = StaticDocument.compile(converterService, sort, Unsupported::queryType);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolveRequired(scriptService, flowContext, message);
+        Bson findQuery = resolvedQuery.getQuery();
+
+        Document replacement = staticDocument != null ?
+                staticDocument :
+                evaluateDocument(flowContext, message);
+
+        FindOneAndReplaceOptions options = new FindOneAndReplaceOptions()
+                .upsert(isTrue(upsert))
+                .returnDocument(isTrue(returnReplaced) ? ReturnDocument.AFTER : ReturnDocument.BEFORE);
+        evaluateOption(projection, staticProjection, flowContext, message).ifPresent(options::projection);
+        evaluateOption(sort, staticSort, flowContext, message).ifPresent(options::sort);
+
+        Document replaced = mongoCollection.findOneAndReplace(findQuery, replacement, options);
+
+        FindAttributes attributes = new FindAttributes(collection, resolvedQuery.getValue());
+
+        // The payload is empty if no document matched the query filter.
+        return replaced == null ?
+                MessageBuilder.get(FindOneAndReplace.class).empty().attributes(attributes).build() :
+                MessageBuilder.get(FindOneAndReplace.class).withJavaObject(DocumentUtils.toMap(replaced)).attributes(attributes).build();
+    }
+
+    @Override
+    public void dispose() {
+        clientFactory.dispose(this, connection);
+        client = null;
+        mongoCollection = null;
+    }
+
+    private Document evaluateDocument(FlowContext flowContext, Message message) {
+        Object replacement =
+                evaluateOrUsePayloadWhenEmpty(document, scriptService, flowContext, message,
+                        () -> new FindOneAndReplaceException(FIND_ONE_AND_REPLACE_DOCUMENT_EMPTY.format(document.value())));
+        return DocumentUtils.from(converterService, replacement, Unsupported.documentType(replacement));
+    }
+
+    private Optional<Bson> evaluateOption(DynamicObject option, Bson staticOption, FlowContext flowContext, Message message) {
+        if (staticOption != null) return Optional.of(staticOption);
+        if (isNullOrBlank(option)) return Optional.empty();
+        return scriptService.evaluate(option, flowContext, message)
+                .map(evaluated -> DocumentUtils.toBson(converterService, evaluated, Unsupported.queryType(evaluated)));
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setQuery(DynamicObject query) {
+        this.query = query;
+    }
+
+    public void setDocument(DynamicObject document) {
+        this.document = document;
+    }
+
+    public void setProjection(DynamicObject projection) {
+        this.projection = projection;
+    }
+
+    public void setSort(DynamicObject sort) {
+        this.sort = sort;
+    }
+
+    public void setUpsert(Boolean upsert) {
+        this.upsert = upsert;
+    }
+
+    public void setReturnReplaced(Boolean returnReplaced) {
+        this.returnReplaced = returnReplaced;
+    }
+}
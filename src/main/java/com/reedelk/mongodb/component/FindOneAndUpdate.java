@@ -0,0 +1,233 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.FindAttributes;
+import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.StaticDocument;
+import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.exception.FindOneAndUpdateException;
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.ProcessorSync;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.reedelk.mongodb.internal.commons.Messages.FindOneAndUpdate.FIND_ONE_AND_UPDATE_DOCUMENT_EMPTY;
+import static com.reedelk.mongodb.internal.commons.Messages.FindOneAndUpdate.FIND_ONE_AND_UPDATE_QUERY_NULL;
+import static com.reedelk.mongodb.internal.commons.Utils.evaluateOrUsePayloadWhenEmpty;
+import static com.reedelk.mongodb.internal.commons.Utils.isTrue;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+@ModuleComponent("MongoDB Find One And Update")
+@Component(service = FindOneAndUpdate.class, scope = ServiceScope.PROTOTYPE)
+@ComponentOutput(
+        attributes = FindAttributes.class,
+        payload = Map.class,
+        description = "The document matching the query filter before or after the update, or empty if no document matched.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the query filter and the update document expressions.")
+@Description("Finds the first document matching the query filter and updates it with a single atomic operation. " +
+        "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
+        "No other operation can modify the document between the find and the update, " +
+        "e.g. a job document can be claimed by one worker only with a single round trip. " +
+        "The sort defines which document is updated when more documents match the query filter. " +
+        "The payload contains the document before the update, or after the update if return updated document is true.")
+public class FindOneAndUpdate implements ProcessorSync {
+
+    @DialogTitle("MongoDB Connection")
+    @Property("Connection")
+    @Description("MongoDB connection configuration to be used by this find one and update operation. " +
+            "Shared configurations use the same MongoDB client.")
+    private ConnectionConfiguration connection;
+
+    @Property("Collection")
+    @Mandatory
+    @Hint("MyCollection")
+    @Example("MyCollection")
+    @Description("Sets the name of the collection to be used for the find one and update operation.")
+    private String collection;
+
+    @Property("Query Filter")
+    @Hint("{ status: 'pending' }")
+    @InitValue("{ status: 'pending' }")
+    @Example("<ul>" +
+            "<li>{ status: 'pending' }</li>" +
+            "<li>{ _id: :id }</li>" +
+            "</ul>")
+    @Description("Sets the selection criteria for the document to be updated. It could be a static or dynamic value. " +
+            "Placeholders bind message values without a script, e.g. { _id: :attributes.id }.")
+    private DynamicObject query;
+
+    @Property("Update Document")
+    @InitValue("#[message.payload()]")
+    @DefaultValue("#[message.payload()]")
+    @Example("<ul>" +
+            "<li>{ $set: { status: 'running' } }</li>" +
+            "<li>[ { $set: { attempts: { $add: [ '$attempts', 1 ] } } } ]</li>" +
+            "</ul>")
+    @Description("The update document to be used to update the document matching the query filter. " +
+            "If it is a list of documents or a JSON array, it is used as an update pipeline (requires MongoDB 4.2 or later).")
+    private DynamicObject document;
+
+    @Property("Projection")
+    @Hint("{ name: 1, surname: 1, _id: 0 }")
+    @Example("{ name: 1, _id: 0 }")
+    @Description("Sets the projection document specifying the fields of the returned document. " +
+            "If no projection is present all the fields of the document will be returned.")
+    private DynamicObject projection;
+
+    @Property("Sort")
+    @Hint("{ priority: -1 }")
+    @Example("{ priority: -1, createdAt: 1 }")
+    @Description("Sets the sort criteria which determines the document to be updated when more documents match the query filter.")
+    private DynamicObject sort;
+
+    @Property("Upsert")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, a new document is inserted when no document matches the query filter.")
+    private Boolean upsert;
+
+    @Property("Return Updated Document")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the payload contains the document after the update, otherwise the document before the update.")
+    private Boolean returnUpdated;
+
+    @Reference
+    ConverterService converterService;
+    @Reference
+    ScriptEngineService scriptService;
+    @Reference
+    ClientFactory clientFactory;
+
+    private MongoClient client;
+    private MongoCollection<Document> mongoCollection;
+    private QueryFilter queryFilter;
+    private Bson staticDocument;
+    private List<Bson> staticPipeline;
+    private Bson staticProjection;
+    private Bson staticSort;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(FindOneAndUpdate.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(FindOneAndUpdate.class, query, "Query filter must not be empty");
+        this.client = clientFactory.clientByConfig(this, connection);
+        this.mongoCollection = client.getDatabase(connection.getDatabase()).getCollection(collection);
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new FindOneAndUpdateException(FIND_ONE_AND_UPDATE_QUERY_NULL.format(value)));
+        if (isNotNullOrBlank(document) && !document.isScript() && DocumentUtils.isList(document.value())) {
+            this.staticPipeline = DocumentUtils.listFrom(converterService, document.value(), Unsupported::documentType);
+        } else {
+            this.staticDocument = StaticDocument.compile(converterService, document, Unsupported::documentType);
+        }
+        this.staticProjection = StaticDocument.compile(converterService, projection, Unsupported::queryType);
+        this.staticSort = StaticDocument.compile(converterService, sort, Unsupported::queryType);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolveRequired(scriptService, flowContext, message);
+        Bson findQuery = resolvedQuery.getQuery();
+
+        Object toUpdate = staticDocument != null ? staticDocument :
+                staticPipeline != null ? staticPipeline :
+                        evaluateDocument(flowContext, message);
+
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+                .upsert(isTrue(upsert))
+                .returnDocument(isTrue(returnUpdated) ? ReturnDocument.AFTER : ReturnDocument.BEFORE);
+        evaluateOption(projection, staticProjection, flowContext, message).ifPresent(options::projection);
+        evaluateOption(sort, staticSort, flowContext, message).ifPresent(options::sort);
+
+        Document updated = toUpdate instanceof List ?
+                mongoCollection.findOneAndUpdate(findQuery, (List<Bson>) toUpdate, options) :
+                mongoCollection.findOneAndUpdate(findQuery, (Bson) toUpdate, options);
+
+        FindAttributes attributes = new FindAttributes(collection, resolvedQuery.getValue());
+
+        // The payload is empty if no document matched the query filter.
+        return updated == null ?
+                MessageBuilder.get(FindOneAndUpdate.class).empty().attributes(attributes).build() :
+                MessageBuilder.get(FindOneAndUpdate.class).withJavaObject(DocumentUtils.toMap(updated)).attributes(attributes).build();
+    }
+
+    @Override
+    public void dispose() {
+        clientFactory.dispose(this, connection);
+        client = null;
+        mongoCollection = null;
+    }
+
+    // Returns the update document or, if the evaluated value is a list, the update pipeline.
+    private Object evaluateDocument(FlowContext flowContext, Message message) {
+        Object toUpdate =
+                evaluateOrUsePayloadWhenEmpty(document, scriptService, flowContext, message,
+                        () -> new FindOneAndUpdateException(FIND_ONE_AND_UPDATE_DOCUMENT_EMPTY.format(document.value())));
+        return DocumentUtils.isList(toUpdate) ?
+                DocumentUtils.listFrom(converterService, toUpdate, Unsupported::documentType) :
+                DocumentUtils.toBson(converterService, toUpdate, Unsupported.documentType(toUpdate));
+    }
+
+    private Optional<Bson> evaluateOption(DynamicObject option, Bson staticOption, FlowContext flowContext, Message message) {
+        if (staticOption != null) return Optional.of(staticOption);
+        if (isNullOrBlank(option)) return Optional.empty();
+        return scriptService.evaluate(option, flowContext, message)
+                .map(evaluated -> DocumentUtils.toBson(converterService, evaluated, Unsupported.queryType(evaluated)));
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setQuery(DynamicObject query) {
+        this.query = query;
+    }
+
+    public void setDocument(DynamicObject document) {
+        this.document = document;
+    }
+
+    public void setProjection(DynamicObject projection) {
+        this.projection = projection;
+    }
+
+    public void setSort(DynamicObject sort) {
+        this.sort = sort;
+    }
+
+    public void setUpsert(Boolean upsert) {
+        this.upsert = upsert;
+    }
+
+    public void setReturnUpdated(Boolean returnUpdated) {
+        this.returnUpdated = returnUpdated;
+    }
+}
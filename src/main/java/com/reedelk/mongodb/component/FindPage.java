@@ -0,0 +1,327 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.FindPageAttributes;
+import com.reedelk.mongodb.internal.commons.ContinuationToken;
+import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.JsonArrayEncoder;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.ReadPreferenceUtils;
+import com.reedelk.mongodb.internal.exception.FindPageException;
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.ProcessorSync;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.message.content.MimeType;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicInteger;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.reedelk.mongodb.internal.commons.Messages.FindPage.*;
+import static com.reedelk.mongodb.internal.commons.ObjectIdUtils.OBJECT_ID_PROPERTY;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.StringUtils.isBlank;
+import static java.util.stream.Collectors.toList;
+
+@ModuleComponent("MongoDB Find Page")
+@ComponentOutput(
+        attributes = FindPageAttributes.class,
+        payload = { List.class, String.class },
+        description = "A list of Objects representing the documents of the page or a JSON string with the documents of the page if the output mime type was application/json.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the query filter, page size and continuation token expressions.")
+@Component(service = FindPage.class, scope = ServiceScope.PROTOTYPE)
+@Description("Finds one page of documents from the specified database collection using range based (keyset) pagination. " +
+        "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
+        "The documents are sorted by the given sort key and each page starts right after the last sort key value of the previous page, " +
+        "which is carried by the continuation token returned in the output attributes. " +
+        "Unlike skip and limit based pagination, the cost of fetching a page does not depend on the page number. " +
+        "The sort key should be indexed: if its values are not unique, the _id is used to order the documents sharing the same value.")
+public class FindPage implements ProcessorSync {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final String DEFAULT_SORT_KEY = "_id";
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    @DialogTitle("MongoDB Connection")
+    @Property("Connection")
+    @Description("MongoDB connection configuration to be used by this find page operation. " +
+            "Shared configurations use the same MongoDB client.")
+    private ConnectionConfiguration connection;
+
+    @Property("Collection")
+    @Hint("MyCollection")
+    @Example("MyCollection")
+    @Description("Sets the name of the collection to be used for the find page operation.")
+    private String collection;
+
+    @Property("Query Filter")
+    @Hint("{ \"name.last\": \"Hopper\" }")
+    @Example("<ul>" +
+            "<li>{ status: 'ACTIVE' }</li>" +
+            "<li><code>context.myFindFilter</code></li>" +
+            "</ul>")
+    @Description("Sets the query filter to be applied to the find page operation. " +
+            "If no filter is present all the documents from the given collection will be paginated.")
+    private DynamicObject query;
+
+    @Property("Sort Key")
+    @InitValue(DEFAULT_SORT_KEY)
+    @DefaultValue(DEFAULT_SORT_KEY)
+    @Hint("_id")
+    @Example("orderNumber")
+    @Description("Sets the name of the field used to sort and paginate the documents. " +
+            "The field must be present in all the paginated documents, the documents sharing the same value are ordered by _id.")
+    private String sortKey;
+
+    @Property("Sort Order")
+    @Example("DESCENDING")
+    @DefaultValue("ASCENDING")
+    @Description("Sets the order in which the documents are paginated.")
+    private SortOrder sortOrder;
+
+    @Property("Page Size")
+    @InitValue("100")
+    @DefaultValue("100")
+    @Example("<ul>" +
+            "<li>50</li>" +
+            "<li><code>message.attributes().queryParams.size[0]</code></li>" +
+            "</ul>")
+    @Description("Sets the maximum number of documents returned in a page.")
+    private DynamicInteger pageSize;
+
+    @Property("Continuation Token")
+    @Example("<code>message.attributes().queryParams.next[0]</code>")
+    @Description("Sets the continuation token returned in the attributes (continuationToken) of the previous page. " +
+            "If no continuation token is present, the first page will be returned.")
+    private DynamicString continuationToken;
+
+    @Property("Out mime type")
+    @DefaultValue(MimeType.AsString.APPLICATION_JSON)
+    @Combo(comboValues = {
+            MimeType.AsString.APPLICATION_JSON,
+            MimeType.AsString.APPLICATION_JAVA})
+    @Description("Sets the mime type of the output. If output is application/json, " +
+            "then the content is a JSON String containing the documents of the page. " +
+            "If output is application/java, the output is a List of Map which can be used right away from the script language.")
+    private String mimeType;
+
+    @Property("Read Preference")
+    @Description("Sets the read preference of the find page operation; if empty the connection read preference is used.")
+    private ReadPreferenceConfiguration readPreference;
+
+    @Property("Read Concern")
+    @Example("MAJORITY")
+    @Description("Sets the read concern level of the find page operation, overriding the one of the connection. " +
+            "If empty, the read concern from the connection URL is used.")
+    private ReadConcernLevel readConcern;
+
+    @Reference
+    ConverterService converterService;
+    @Reference
+    ScriptEngineService scriptService;
+    @Reference
+    ClientFactory clientFactory;
+
+    private MongoClient client;
+    private MongoCollection<Document> mongoCollection;
+    private QueryFilter queryFilter;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(FindPage.class, collection, "MongoDB collection must not be empty");
+        ReadPreferenceUtils.validate(FindPage.class, readPreference);
+        this.client = clientFactory.clientByConfig(this, connection);
+        MongoCollection<Document> mongoCollection = client.getDatabase(connection.getDatabase()).getCollection(collection);
+        this.mongoCollection = mongoCollection
+                .withReadPreference(ReadPreferenceUtils.from(mongoCollection.getReadPreference(), readPreference))
+                .withReadConcern(ReadPreferenceUtils.from(mongoCollection.getReadConcern(), readConcern));
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new FindPageException(FIND_PAGE_QUERY_NULL.format(value)));
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+
+        // If the query filter is not given, all the documents of the collection are paged.
+        QueryFilter.Resolved resolvedQuery = queryFilter.resolve(scriptService, flowContext, message);
+        Object evaluatedQuery = resolvedQuery == null ? null : resolvedQuery.getValue();
+        Bson findQuery = resolvedQuery == null ? new Document() : resolvedQuery.getQuery();
+
+        String key = isBlank(sortKey) ? DEFAULT_SORT_KEY : sortKey;
+        boolean descending = SortOrder.DESCENDING.equals(sortOrder);
+        int size = evaluatePageSize(flowContext, message);
+
+        // If the sort key is not the _id, the _id is the tie-breaker of the documents
+        // sharing the same sort key value: the page order is given by the compound key.
+        boolean compoundKey = !OBJECT_ID_PROPERTY.equals(key);
+
+        // The range predicate on the sort key starting after the last key of
+        // the previous page is merged with the user defined query filter.
+        ContinuationToken lastToken = evaluateLastToken(compoundKey, flowContext, message);
+        if (lastToken != null) {
+            Bson range = compoundKey ?
+                    Filters.or(
+                            after(key, lastToken.lastKey(), descending),
+                            Filters.and(
+                                    Filters.eq(key, lastToken.lastKey()),
+                                    after(OBJECT_ID_PROPERTY, lastToken.lastId(), descending))) :
+                    after(key, lastToken.lastKey(), descending);
+            findQuery = evaluatedQuery != null ? Filters.and(findQuery, range) : range;
+        }
+
+        String[] sortKeys = compoundKey ? new String[] { key, OBJECT_ID_PROPERTY } : new String[] { key };
+        Bson findSort = descending ? Sorts.descending(sortKeys) : Sorts.ascending(sortKeys);
+
+        // One more document than the page size is fetched
+        // to know whether there is a next page or not.
+        List<RawBsonDocument> page = new ArrayList<>();
+        mongoCollection.find(findQuery, RawBsonDocument.class)
+                .sort(findSort)
+                .limit(size + 1)
+                .forEach((Consumer<RawBsonDocument>) page::add);
+
+        String nextToken = null;
+        if (page.size() > size) {
+            page.remove(size);
+            RawBsonDocument last = page.get(size - 1);
+            BsonValue lastId = last.get(OBJECT_ID_PROPERTY);
+            nextToken = ContinuationToken.encode(valueOf(last, key, lastId), compoundKey ? lastId : null);
+        }
+
+        FindPageAttributes attributes = new FindPageAttributes(collection, evaluatedQuery, size, nextToken);
+
+        MimeType parsedMimeType = MimeType.parse(this.mimeType, MimeType.APPLICATION_JSON);
+
+        if (MimeType.APPLICATION_JSON.equals(parsedMimeType)) {
+            // application/json -> String
+            String output = JsonArrayEncoder.encode(page);
+            return MessageBuilder.get(FindPage.class)
+                    .withJson(output)
+                    .attributes(attributes)
+                    .build();
+
+        } else {
+            // application/java -> List of Map
+            @SuppressWarnings("rawtypes")
+            List<Map> output = page.stream()
+                    .map(document -> document.decode(DOCUMENT_CODEC))
+                    .map(DocumentUtils::toMap)
+                    .collect(toList());
+            return MessageBuilder.get(FindPage.class)
+                    .withList(output, Map.class)
+                    .attributes(attributes)
+                    .build();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        clientFactory.dispose(this, connection);
+        client = null;
+        mongoCollection = null;
+    }
+
+    private int evaluatePageSize(FlowContext flowContext, Message message) {
+        int size = isNotNullOrBlank(pageSize) ?
+                scriptService.evaluate(pageSize, flowContext, message).orElse(DEFAULT_PAGE_SIZE) :
+                DEFAULT_PAGE_SIZE;
+        if (size <= 0) {
+            throw new FindPageException(FIND_PAGE_SIZE_NOT_VALID.format(size));
+        }
+        return size;
+    }
+
+    private ContinuationToken evaluateLastToken(boolean compoundKey, FlowContext flowContext, Message message) {
+        if (!isNotNullOrBlank(continuationToken)) return null;
+        String token = scriptService.evaluate(continuationToken, flowContext, message).orElse(null);
+        if (isBlank(token)) return null;
+        ContinuationToken lastToken = ContinuationToken.decode(token,
+                () -> new FindPageException(FIND_PAGE_CONTINUATION_TOKEN_NOT_VALID.format(token)));
+        // The token of a compound key must carry the _id tie-breaker as well.
+        if (compoundKey && lastToken.lastId() == null) {
+            throw new FindPageException(FIND_PAGE_CONTINUATION_TOKEN_NOT_VALID.format(token));
+        }
+        return lastToken;
+    }
+
+    private static Bson after(String key, BsonValue value, boolean descending) {
+        return descending ? Filters.lt(key, value) : Filters.gt(key, value);
+    }
+
+    // The sort key might be a path to a field of an embedded document, e.g. 'customer.id'.
+    // A missing sort key fails: the range of the next page would start after a null value,
+    // which does not match the documents having the sort key.
+    private static BsonValue valueOf(RawBsonDocument document, String key, BsonValue id) {
+        BsonValue current = document;
+        for (String segment : key.split("\\.")) {
+            current = current != null && current.isDocument() ? current.asDocument().get(segment) : null;
+        }
+        if (current == null || current.isNull()) {
+            throw new FindPageException(FIND_PAGE_SORT_KEY_MISSING.format(key, new BsonDocument(OBJECT_ID_PROPERTY, id).toJson()));
+        }
+        return current;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setQuery(DynamicObject query) {
+        this.query = query;
+    }
+
+    public void setSortKey(String sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    public void setSortOrder(SortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    public void setPageSize(DynamicInteger pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setContinuationToken(DynamicString continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public void setReadPreference(ReadPreferenceConfiguration readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public void setReadConcern(ReadConcernLevel readConcern) {
+        this.readConcern = readConcern;
+    }
+}
@@ -1,46 +1,86 @@
 package com.reedelk.mongodb.component;
 
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
+import com.mongodb.bulk.BulkWriteError;
 import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.attribute.InsertAttributes;
+import com.reedelk.mongodb.internal.commons.ChunkedInsert;
+import com.reedelk.mongodb.internal.commons.CollectionHandles;
 import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.InsertBatcher;
+import com.reedelk.mongodb.internal.commons.JsonDocumentIterator;
 import com.reedelk.mongodb.internal.commons.ObjectIdUtils;
+import com.reedelk.mongodb.internal.commons.PublisherInputStream;
+import com.reedelk.mongodb.internal.commons.RawDocumentMap;
 import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.commons.WriteConcernUtils;
 import com.reedelk.mongodb.internal.exception.InsertException;
 import com.reedelk.runtime.api.annotation.*;
 import com.reedelk.runtime.api.component.ProcessorSync;
 import com.reedelk.runtime.api.converter.ConverterService;
 import com.reedelk.runtime.api.flow.FlowContext;
 import com.reedelk.runtime.api.message.Message;
-import com.reedelk.runtime.api.message.MessageAttributes;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.message.content.Pair;
 import com.reedelk.runtime.api.script.ScriptEngineService;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.types.ObjectId;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_BATCH_INTERRUPTED;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_BATCH_TIMEOUT;
 import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_DOCUMENT_EMPTY;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_MANY_FAILED;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_ORDERED_FAILED;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_STREAM_ERROR;
 import static com.reedelk.mongodb.internal.commons.Utils.evaluateOrUsePayloadWhenEmpty;
-import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
-import static java.util.stream.Collectors.toList;
+import static com.reedelk.mongodb.internal.commons.Utils.isTrue;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+import static java.util.stream.Collectors.toSet;
 
 
 @ModuleComponent("MongoDB Insert (One/Many)")
 @ComponentOutput(
-        attributes = MessageAttributes.class,
+        attributes = InsertAttributes.class,
         payload = { Object.class, List.class },
         description = "A list of inserted IDs.")
 @ComponentInput(
-        payload = { List.class, String.class, Map.class, Pair.class, byte[].class },
-        description = "The data to be inserted into the MongoDB. If the input is a list, many documents will be inserted together.")
+        payload = { List.class, String.class, Map.class, Pair.class, byte[].class, InputStream.class },
+        description = "The data to be inserted into the MongoDB. If the input is a list, many documents will be inserted together. " +
+                "If the input is a stream, it must contain either a JSON array of documents or one JSON document per line.")
 @Component(service = Insert.class, scope = ServiceScope.PROTOTYPE)
 @Description("Inserts one or more documents into the given database collection. " +
         "The connection configuration allows to specify host, port, database name, username and password to be used for authentication against the database. " +
@@ -48,21 +88,42 @@ import static java.util.stream.Collectors.toList;
         "is used as a document to be inserted. The input document could be a JSON string, " +
         "a Map, a Pair or a DataRow (Insert One). " +
         "If the input is a list every item in the list will be considered as a separate document " +
-        "and all the documents in the list will be inserted (Insert Many). ")
+        "and all the documents in the list will be inserted (Insert Many). " +
+        "If the input is a stream (e.g. a large upload) or an input stream, its JSON documents are parsed and inserted in chunks " +
+        "while the stream is being read, without loading the whole stream into memory. " +
+        "Unordered inserts of many documents continue after a document fails and report the failed documents in the attributes. " +
+        "When batching is enabled, the single documents inserted by concurrent flow executions " +
+        "are collected and written together (Insert Many), each message waiting for the result of its own document.")
 public class Insert implements ProcessorSync {
 
+    private static final String PAYLOAD_DOCUMENT = "#[message.payload()]";
+    private static final int PARALLEL_CHUNKS = 4;
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_CHUNK_MAX_BYTES = 16 * 1024 * 1024;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_BATCH_MAX_BYTES = 4 * 1024 * 1024;
+    private static final int DEFAULT_BATCH_MAX_WAIT = 10;
+    private static final int DEFAULT_BATCH_WRITE_TIMEOUT = 30000;
+
     @DialogTitle("MongoDB Connection")
     @Property("Connection")
     @Description("MongoDB connection configuration to be used by this insert operation. " +
             "Shared configurations use the same MongoDB client.")
     private ConnectionConfiguration connection;
 
+    @Property("Database")
+    @Hint("MyDatabase")
+    @Example("#[message.attributes().tenant]")
+    @Description("Sets the name of the database to be used for the insert operation, it can be an expression. " +
+            "If empty, the database of the connection is used.")
+    private DynamicString database;
+
     @Property("Collection")
     @Mandatory
     @Hint("MyCollection")
     @Example("MyCollection")
-    @Description("Sets the name of the collection to be used for the insert operation.")
-    private String collection;
+    @Description("Sets the name of the collection to be used for the insert operation, it can be an expression.")
+    private DynamicString collection;
 
     @Property("Insert Document")
     @InitValue("#[message.payload()]")
@@ -74,6 +135,77 @@ public class Insert implements ProcessorSync {
             "be inserted and all the documents in the list will be inserted in batch (Insert Many).")
     private DynamicObject document;
 
+    @Property("Ordered")
+    @Example("false")
+    @InitValue("true")
+    @DefaultValue("true")
+    @Description("If true, the documents of a list are inserted in order and the insert stops at the first document which could not be inserted. " +
+            "If false, the chunks of the list are inserted in parallel, and all the documents which can be inserted are inserted " +
+            "even if some of them fail (e.g. duplicate key errors). The failed documents are reported in the attributes.")
+    private Boolean ordered;
+
+    @Property("Continue On Error")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "ordered", propertyValue = "false")
+    @Description("If true, an unordered insert where some documents could not be inserted does not throw an error: " +
+            "the payload contains the IDs of the inserted documents and the attributes contain the index, " +
+            "error code and error message of each failed document.")
+    private Boolean continueOnError;
+
+    @Property("Chunk Size")
+    @Hint("1000")
+    @Example("5000")
+    @DefaultValue("1000")
+    @Description("When the input is a list, the documents are converted and inserted in chunks of at most the given number of documents, " +
+            "so that memory usage depends on the chunk size and not on the size of the list.")
+    private Integer chunkSize;
+
+    @Property("Chunk Max Size (bytes)")
+    @Hint("16777216")
+    @Example("8388608")
+    @DefaultValue("16777216")
+    @Description("When the input is a list, the maximum size in bytes of the BSON documents inserted by a single chunk.")
+    private Integer chunkMaxBytes;
+
+    @Property("Batching")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the single documents inserted by concurrent flow executions are collected into batches " +
+            "which are written with one unordered insert many operation, saving a database round trip for each message. " +
+            "A batch is written when it reaches the batch size, the batch max size in bytes or when its first document " +
+            "has been waiting for the batch max wait time. Each message waits for its batch to be written " +
+            "and fails only if its own document could not be inserted. Lists of documents are not batched.")
+    private Boolean batching;
+
+    @Property("Batch Size")
+    @Hint("500")
+    @Example("1000")
+    @DefaultValue("500")
+    @When(propertyName = "batching", propertyValue = "true")
+    @Description("The maximum number of documents written by a single batch.")
+    private Integer batchSize;
+
+    @Property("Batch Max Size (bytes)")
+    @Hint("4194304")
+    @Example("1048576")
+    @DefaultValue("4194304")
+    @When(propertyName = "batching", propertyValue = "true")
+    @Description("The maximum size in bytes of the BSON documents written by a single batch.")
+    private Integer batchMaxBytes;
+
+    @Property("Batch Max Wait (ms)")
+    @Hint("10")
+    @Example("50")
+    @DefaultValue("10")
+    @When(propertyName = "batching", propertyValue = "true")
+    @Description("The maximum time in milliseconds a document waits for its batch to be written.")
+    private Integer batchMaxWait;
+
+    @Property("Write Concern")
+    @Description("Sets the write concern of the insert operation, overriding the one of the connection.")
+    private WriteConcernConfiguration writeConcern;
+
     @Reference
     ConverterService converterService;
     @Reference
@@ -82,79 +214,251 @@ public class Insert implements ProcessorSync {
     ClientFactory clientFactory;
 
     private MongoClient client;
+    private InsertBatcher batcher;
+    private long batchTimeout;
+    private ExecutorService chunksExecutor;
+    private WriteConcern effectiveWriteConcern;
+    private CollectionHandles<RawBsonDocument> collectionHandles;
+    private Codec<Document> documentCodec;
 
     @Override
     public void initialize() {
-        requireNotBlank(Insert.class, collection, "MongoDB collection must not be empty");
+        requireNotNullOrBlank(Insert.class, collection, "MongoDB collection must not be empty");
         this.client = clientFactory.clientByConfig(this, connection);
+        this.effectiveWriteConcern = WriteConcernUtils.from(
+                client.getDatabase(connection.getDatabase()).getWriteConcern(), writeConcern);
+        this.collectionHandles = new CollectionHandles<>(client, connection.getDatabase(), database, collection,
+                CollectionHandles.DEFAULT_MAX_HANDLES, (mongoDatabase, collectionName) -> mongoDatabase
+                        .getCollection(collectionName, RawBsonDocument.class)
+                        .withWriteConcern(effectiveWriteConcern));
+        // The documents are encoded with the codecs of the collections, as the driver would do
+        // when inserting a Document, e.g. for java.time values of Map payloads. The collections
+        // inherit the codec registry of the client, therefore it is the same for all of them.
+        this.documentCodec = client.getDatabase(connection.getDatabase()).getCodecRegistry().get(Document.class);
+        if (isUnordered()) {
+            this.chunksExecutor = Executors.newFixedThreadPool(PARALLEL_CHUNKS, runnable -> {
+                Thread thread = new Thread(runnable, "mongodb-insert-chunks");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (isTrue(batching)) {
+            requireTrue(Insert.class, collectionHandles.isStatic(),
+                    "MongoDB insert batching cannot be used with database or collection expressions");
+            int maxWait = Optional.ofNullable(batchMaxWait).orElse(DEFAULT_BATCH_MAX_WAIT);
+            this.batcher = new InsertBatcher(collectionHandles.staticHandle(),
+                    Optional.ofNullable(batchSize).orElse(DEFAULT_BATCH_SIZE),
+                    Optional.ofNullable(batchMaxBytes).orElse(DEFAULT_BATCH_MAX_BYTES),
+                    maxWait);
+            // A message waits for its batch at most the batch max wait time plus the
+            // time needed to write the batch, bounded by the connection socket timeout.
+            this.batchTimeout = maxWait + Optional.ofNullable(connection.getSocketTimeout())
+                    .filter(socketTimeout -> socketTimeout > 0)
+                    .orElse(DEFAULT_BATCH_WRITE_TIMEOUT);
+        }
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
-        MongoDatabase mongoDatabase = client.getDatabase(connection.getDatabase());
+        MongoCollection<RawBsonDocument> mongoCollection = collectionHandles.get(scriptService, flowContext, message);
 
-        MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collection);
+        // A streamed JSON payload is parsed and inserted while it is being received, therefore
+        // it is never loaded into memory as a whole. Streams of objects (e.g. Maps) are resolved as a list.
+        if (isPayloadDocument() && isJsonStream(message)) {
+            return insertStream(mongoCollection, new PublisherInputStream(message.content().stream()));
+        }
 
         Object insertDocument = evaluateOrUsePayloadWhenEmpty(document, scriptService, flowContext, message,
                 () -> new InsertException(INSERT_DOCUMENT_EMPTY.format(document.value())));
 
-        if (insertDocument instanceof List) {
-            return insertMany(mongoCollection, (List<Object>) insertDocument);
+        if (insertDocument instanceof InputStream) {
+            return insertStream(mongoCollection, (InputStream) insertDocument);
+        } else if (insertDocument instanceof List) {
+            Iterator<RawBsonDocument> documents = ((List<Object>) insertDocument).stream()
+                    .map(this::encode)
+                    .iterator();
+            return insertMany(mongoCollection, documents);
+        } else if (batcher != null) {
+            return insertBatched(encode(insertDocument));
         } else {
-            return insertOne(mongoCollection, insertDocument);
+            return insertOne(mongoCollection, encode(insertDocument));
         }
     }
 
     @Override
     public void dispose() {
+        if (batcher != null) {
+            batcher.dispose();
+            batcher = null;
+        }
+        if (chunksExecutor != null) {
+            chunksExecutor.shutdown();
+            chunksExecutor = null;
+        }
         clientFactory.dispose(this, connection);
         client = null;
+        collectionHandles = null;
+        documentCodec = null;
     }
 
-    private Message insertMany(MongoCollection<Document> mongoCollection, List<Object> toInsertList) {
-        if (toInsertList.isEmpty()) {
-            return MessageBuilder.get(Insert.class)
-                    .withJavaObject(Collections.emptyList())
-                    .build();
+    private Message insertStream(MongoCollection<RawBsonDocument> mongoCollection, InputStream stream) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            JsonDocumentIterator documents = new JsonDocumentIterator(reader);
+            if (documents.isArray() || !documents.hasNext()) {
+                return insertMany(mongoCollection, documents);
+            }
+            // A single top level document is inserted as a single document, like a non streamed document.
+            RawBsonDocument first = DocumentUtils.withId(documents.next());
+            if (!documents.hasNext()) {
+                return batcher != null ?
+                        insertBatched(first) :
+                        insertOne(mongoCollection, first);
+            }
+            Iterator<RawBsonDocument> all = Stream.concat(Stream.of(first),
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(documents, Spliterator.ORDERED), false))
+                    .iterator();
+            return insertMany(mongoCollection, all);
+        } catch (IOException exception) {
+            throw new InsertException(INSERT_STREAM_ERROR.format(exception.getMessage()));
         }
+    }
 
-        List<Document> toInsertDocuments = toInsertList
-                .stream()
-                .map(documentAsObject ->
-                        DocumentUtils.from(converterService, documentAsObject, Unsupported.documentType(documentAsObject)))
-                .collect(toList());
+    private Message insertMany(MongoCollection<RawBsonDocument> mongoCollection, Iterator<RawBsonDocument> documents) {
+        ChunkedInsert chunkedInsert = isUnordered() ?
+                ChunkedInsert.unordered(mongoCollection, chunksExecutor, PARALLEL_CHUNKS) :
+                ChunkedInsert.ordered(mongoCollection);
+        int maxChunkDocuments = Optional.ofNullable(chunkSize).orElse(DEFAULT_CHUNK_SIZE);
+        long maxChunkBytes = Optional.ofNullable(chunkMaxBytes).orElse(DEFAULT_CHUNK_MAX_BYTES);
 
-        mongoCollection.insertMany(toInsertDocuments);
+        // The documents are converted and inserted one chunk at a time, so that only
+        // the documents of the current chunk are held in memory besides the input.
+        List<Object> insertIds = new ArrayList<>();
+        List<RawBsonDocument> chunk = new ArrayList<>();
+        long chunkBytes = 0;
 
-        List<Object> insertIds = toInsertDocuments.stream()
-                .map(document -> document.get(ObjectIdUtils.OBJECT_ID_PROPERTY))
-                .map(ObjectIdUtils::replace)
-                .collect(toList());
+        // The remaining documents are not converted once the insert failed, e.g. after
+        // the first write error of an ordered insert or a lost connection of an unordered one.
+        while (documents.hasNext() && !chunkedInsert.hasFailed()) {
+            RawBsonDocument encoded = DocumentUtils.withId(documents.next());
+            insertIds.add(insertIdOf(encoded));
+
+            chunk.add(encoded);
+            chunkBytes += encoded.getByteBuffer().remaining();
+            if (chunk.size() >= maxChunkDocuments || chunkBytes >= maxChunkBytes) {
+                chunkedInsert.insert(chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunkedInsert.insert(chunk);
+        }
+
+        List<BulkWriteError> errors = chunkedInsert.complete();
+        if (!errors.isEmpty()) {
+            BulkWriteError first = errors.get(0);
+            if (!isUnordered()) {
+                // The documents before the failed one were inserted, the ones after it were not.
+                List<Object> insertedIds = new ArrayList<>(insertIds.subList(0, first.getIndex()));
+                String error = INSERT_ORDERED_FAILED.format(first.getIndex(), insertedIds.size(),
+                        first.getCode(), first.getMessage());
+                throw new InsertException(error, insertedIds);
+            }
+            // Only the IDs of the documents successfully inserted are returned.
+            Set<Integer> failedIndexes = errors.stream().map(BulkWriteError::getIndex).collect(toSet());
+            List<Object> successfulIds = new ArrayList<>(insertIds.size() - failedIndexes.size());
+            for (int i = 0; i < insertIds.size(); i++) {
+                if (!failedIndexes.contains(i)) successfulIds.add(insertIds.get(i));
+            }
+            if (!isTrue(continueOnError)) {
+                String error = INSERT_MANY_FAILED.format(errors.size(), insertIds.size(),
+                        first.getIndex(), first.getCode(), first.getMessage());
+                throw new InsertException(error, successfulIds);
+            }
+            insertIds = successfulIds;
+        }
 
-        // The payload body contains the number of inserted documents.
-        // In this case it is always one.
         return MessageBuilder.get(Insert.class)
                 .withJavaObject(insertIds) // The payload contains the IDs of the inserted documents.
+                .attributes(new InsertAttributes(insertIds, errors, isAcknowledged()))
                 .build();
     }
 
-    private Message insertOne(MongoCollection<Document> mongoCollection, Object insertDocument) {
+    private Message insertOne(MongoCollection<RawBsonDocument> mongoCollection, RawBsonDocument documentToInsert) {
         // Insert One Document
-        Document documentToInsert =
-                DocumentUtils.from(converterService, insertDocument, Unsupported.documentType(insertDocument));
         mongoCollection.insertOne(documentToInsert);
 
-        Object insertId = documentToInsert.get(ObjectIdUtils.OBJECT_ID_PROPERTY);
+        Object insertId = insertIdOf(documentToInsert);
 
         // The payload body contains the number of inserted documents.
         // In this case it is always one.
         return MessageBuilder.get(Insert.class)
-                .withJavaObject(ObjectIdUtils.replace(insertId)) // The payload contains the id of inserted document.
+                .withJavaObject(insertId) // The payload contains the id of inserted document.
+                .attributes(new InsertAttributes(Collections.singletonList(insertId), Collections.emptyList(), isAcknowledged()))
                 .build();
     }
 
+    private Message insertBatched(RawBsonDocument encoded) {
+        Object insertId = insertIdOf(encoded);
+
+        try {
+            batcher.submit(encoded).get(batchTimeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new InsertException(exception.getCause().getMessage());
+        } catch (TimeoutException exception) {
+            throw new InsertException(INSERT_BATCH_TIMEOUT.format(batchTimeout));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InsertException(INSERT_BATCH_INTERRUPTED.format());
+        }
+
+        return MessageBuilder.get(Insert.class)
+                .withJavaObject(insertId) // The payload contains the id of inserted document.
+                .attributes(new InsertAttributes(Collections.singletonList(insertId), Collections.emptyList(), isAcknowledged()))
+                .build();
+    }
+
+    private boolean isAcknowledged() {
+        return effectiveWriteConcern.isAcknowledged();
+    }
+
+    // Only streams of byte arrays or strings are JSON: the documents are parsed from the chunks.
+    private boolean isJsonStream(Message message) {
+        if (!message.content().isStream()) return false;
+        Class<?> streamType = message.content().streamType();
+        return byte[].class.equals(streamType) || String.class.equals(streamType);
+    }
+
+    private boolean isPayloadDocument() {
+        return isNullOrBlank(document) || PAYLOAD_DOCUMENT.equals(String.valueOf(document.value()).trim());
+    }
+
+    private boolean isUnordered() {
+        return ordered != null && !ordered;
+    }
+
+    // The ID is generated here, as the Document codec would do, because the document is encoded
+    // before being written. JSON bytes are parsed directly into BSON, without a String or a Document.
+    private RawBsonDocument encode(Object insertDocument) {
+        if (insertDocument instanceof byte[]) {
+            return DocumentUtils.withId(DocumentUtils.parse((byte[]) insertDocument));
+        }
+        Document document = DocumentUtils.from(converterService, insertDocument, Unsupported.documentType(insertDocument));
+        document.computeIfAbsent(ObjectIdUtils.OBJECT_ID_PROPERTY, key -> new ObjectId());
+        return new RawBsonDocument(document, documentCodec);
+    }
+
+    private static Object insertIdOf(RawBsonDocument document) {
+        Object insertId = RawDocumentMap.toJava(document.get(ObjectIdUtils.OBJECT_ID_PROPERTY));
+        return ObjectIdUtils.replace(insertId);
+    }
+
     public void setConnection(ConnectionConfiguration connection) {
         this.connection = connection;
     }
@@ -163,7 +467,47 @@ public class Insert implements ProcessorSync {
         this.document = document;
     }
 
-    public void setCollection(String collection) {
+    public void setDatabase(DynamicString database) {
+        this.database = database;
+    }
+
+    public void setCollection(DynamicString collection) {
         this.collection = collection;
     }
+
+    public void setOrdered(Boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public void setContinueOnError(Boolean continueOnError) {
+        this.continueOnError = continueOnError;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setChunkMaxBytes(Integer chunkMaxBytes) {
+        this.chunkMaxBytes = chunkMaxBytes;
+    }
+
+    public void setBatching(Boolean batching) {
+        this.batching = batching;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchMaxBytes(Integer batchMaxBytes) {
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    public void setBatchMaxWait(Integer batchMaxWait) {
+        this.batchMaxWait = batchMaxWait;
+    }
+
+    public void setWriteConcern(WriteConcernConfiguration writeConcern) {
+        this.writeConcern = writeConcern;
+    }
 }
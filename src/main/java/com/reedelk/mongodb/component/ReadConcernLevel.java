@@ -0,0 +1,18 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ReadConcernLevel {
+
+    @DisplayName("Local")
+    LOCAL,
+
+    @DisplayName("Available")
+    AVAILABLE,
+
+    @DisplayName("Majority")
+    MAJORITY,
+
+    @DisplayName("Linearizable")
+    LINEARIZABLE
+}
@@ -0,0 +1,58 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.Implementor;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+@Component(service = ReadPreferenceConfiguration.class, scope = ServiceScope.PROTOTYPE)
+public class ReadPreferenceConfiguration implements Implementor {
+
+    @Property("Mode")
+    @Example("SECONDARY_PREFERRED")
+    @Description("The replica set members the read operation is sent to. " +
+            "Secondary and secondary preferred allow to offload reads (e.g. reporting and analytics) from the primary, " +
+            "but the documents read from a secondary might not reflect the latest writes. " +
+            "If empty, the read preference from the connection URL is used.")
+    private ReadPreferenceMode mode;
+
+    @Property("Tag Sets")
+    @Hint("dc:east,usage:reporting;dc:west")
+    @Example("dc:east,usage:reporting;dc:west")
+    @Description("The tag sets used to select the replica set members, in order of preference. " +
+            "Tag sets are separated by ';' and the tags of a tag set are name:value pairs separated by ','. " +
+            "An empty tag set at the end matches any member. Tag sets can not be used with the primary mode.")
+    private String tagSets;
+
+    @Property("Max Staleness (seconds)")
+    @Hint("120")
+    @Example("120")
+    @Description("The maximum replication lag in seconds of a secondary to be selected for the read operation. " +
+            "It must be at least 90 seconds. Max staleness can not be used with the primary mode. " +
+            "If empty, secondaries are selected regardless of their replication lag.")
+    private Integer maxStaleness;
+
+    public ReadPreferenceMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ReadPreferenceMode mode) {
+        this.mode = mode;
+    }
+
+    public String getTagSets() {
+        return tagSets;
+    }
+
+    public void setTagSets(String tagSets) {
+        this.tagSets = tagSets;
+    }
+
+    public Integer getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Integer maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+}
@@ -0,0 +1,21 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ReadPreferenceMode {
+
+    @DisplayName("Primary")
+    PRIMARY,
+
+    @DisplayName("Primary Preferred")
+    PRIMARY_PREFERRED,
+
+    @DisplayName("Secondary")
+    SECONDARY,
+
+    @DisplayName("Secondary Preferred")
+    SECONDARY_PREFERRED,
+
+    @DisplayName("Nearest")
+    NEAREST
+}
@@ -0,0 +1,12 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.runtime.api.annotation.DisplayName;
+
+public enum SortOrder {
+
+    @DisplayName("Ascending")
+    ASCENDING,
+
+    @DisplayName("Descending")
+    DESCENDING
+}
@@ -1,13 +1,18 @@
 package com.reedelk.mongodb.component;
 
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.result.UpdateResult;
 import com.reedelk.mongodb.internal.ClientFactory;
 import com.reedelk.mongodb.internal.attribute.UpdateAttributes;
+import com.reedelk.mongodb.internal.commons.CollectionHandles;
 import com.reedelk.mongodb.internal.commons.DocumentUtils;
+import com.reedelk.mongodb.internal.commons.QueryFilter;
+import com.reedelk.mongodb.internal.commons.StaticDocument;
 import com.reedelk.mongodb.internal.commons.Unsupported;
+import com.reedelk.mongodb.internal.commons.WriteConcernUtils;
 import com.reedelk.mongodb.internal.exception.UpdateException;
 import com.reedelk.runtime.api.annotation.*;
 import com.reedelk.runtime.api.component.ProcessorSync;
@@ -19,7 +24,9 @@ import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.message.content.Pair;
 import com.reedelk.runtime.api.script.ScriptEngineService;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
@@ -31,8 +38,8 @@ import static com.reedelk.mongodb.internal.commons.Messages.Update.UPDATE_DOCUME
 import static com.reedelk.mongodb.internal.commons.Messages.Update.UPDATE_QUERY_NULL;
 import static com.reedelk.mongodb.internal.commons.Utils.evaluateOrUsePayloadWhenEmpty;
 import static com.reedelk.mongodb.internal.commons.Utils.isTrue;
-import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
 import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNullOrBlank;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNotNullOrBlank;
 
 @ModuleComponent("MongoDB Update (One/Many)")
 @Component(service = Update.class, scope = ServiceScope.PROTOTYPE)
@@ -49,7 +56,10 @@ import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuratio
         "The update document can be a static or a dynamic expression. " +
         "The update document might be a JSON string, a Map, a Pair or a DataRow (Update One)." +
         "If the property many is true, <b>all</b> the documents matching the " +
-        "given query filter will be updated (Update Many).")
+        "given query filter will be updated (Update Many). " +
+        "The update can also be an aggregation pipeline (a list of stages), so that computed and conditional " +
+        "updates are executed by the database in a single round trip. If upsert is true and no document " +
+        "matches the query filter, a new document is inserted and its ID is returned in the attributes.")
 public class Update implements ProcessorSync {
 
     @DialogTitle("MongoDB Connection")
@@ -58,11 +68,18 @@ public class Update implements ProcessorSync {
             "Shared configurations use the same MongoDB client.")
     private ConnectionConfiguration connection;
 
+    @Property("Database")
+    @Hint("MyDatabase")
+    @Example("#[message.attributes().tenant]")
+    @Description("Sets the name of the database to be used for the update operation, it can be an expression. " +
+            "If empty, the database of the connection is used.")
+    private DynamicString database;
+
     @Property("Collection")
     @Hint("MyCollection")
     @Example("MyCollection")
-    @Description("Sets the name of the collection to be used for the update operation.")
-    private String collection;
+    @Description("Sets the name of the collection to be used for the update operation, it can be an expression.")
+    private DynamicString collection;
 
     @Property("Query Filter")
     @Hint("{ item: \"BLP921\" }")
@@ -70,15 +87,23 @@ public class Update implements ProcessorSync {
     @Example("<ul>" +
             "<li>{ _id: 1 }</li>" +
             "<li><code>{ _id: message.attributes().id }</code></li>" +
+            "<li>{ _id: :id }</li>" +
             "<li>{ name: \"Andy\" }</li>" +
             "</ul>")
-    @Description("Sets the selection criteria for the update. It could be a static or dynamic value.")
+    @Description("Sets the selection criteria for the update. It could be a static or dynamic value. " +
+            "Placeholders bind message values without a script, e.g. { name: :payload.name }.")
     private DynamicObject query;
 
     @Property("Update Document")
     @InitValue("#[message.payload()]")
-    @DefaultValue("#[message.payload()")
-    @Description("The update document to be used to update one or all the documents matching the query filter.")
+    @DefaultValue("#[message.payload()]")
+    @Example("<ul>" +
+            "<li>{ $set: { status: 'shipped' } }</li>" +
+            "<li>[ { $set: { total: { $add: [ '$price', '$tax' ] } } } ]</li>" +
+            "</ul>")
+    @Description("The update document to be used to update one or all the documents matching the query filter. " +
+            "If it is a list of documents or a JSON array, it is used as an update pipeline (requires MongoDB 4.2 or later): " +
+            "the stages can use aggregation expressions referring to the fields of the updated document.")
     private DynamicObject document;
 
     @Property("Update Many")
@@ -87,6 +112,24 @@ public class Update implements ProcessorSync {
     @Description("If true updates all the documents matching the query filter, otherwise only one will be updated.")
     private Boolean many;
 
+    @Property("Upsert")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, a new document is inserted when no document matches the query filter. " +
+            "The ID of the inserted document is returned in the attributes.")
+    private Boolean upsert;
+
+    @Property("Array Filters")
+    @Hint("[ { \"item.status\": \"pending\" } ]")
+    @Example("[ { \"elem.grade\": { $gte: 85 } } ]")
+    @Description("Sets the filters which determine the array elements to be updated by the filtered positional operator $[identifier]. " +
+            "It could be a list of documents or a JSON array.")
+    private DynamicObject arrayFilters;
+
+    @Property("Write Concern")
+    @Description("Sets the write concern of the update operation, overriding the one of the connection.")
+    private WriteConcernConfiguration writeConcern;
+
     @Reference
     ConverterService converterService;
     @Reference
@@ -95,38 +138,62 @@ public class Update implements ProcessorSync {
     ClientFactory clientFactory;
 
     private MongoClient client;
+    private CollectionHandles<Document> collectionHandles;
+    private QueryFilter queryFilter;
+    private Bson staticDocument;
+    private List<Bson> staticPipeline;
+    private WriteConcern effectiveWriteConcern;
 
     @Override
     public void initialize() {
-        requireNotBlank(Update.class, collection, "Collection must not be empty");
+        requireNotNullOrBlank(Update.class, collection, "Collection must not be empty");
         requireNotNullOrBlank(Update.class, query, "Query filter must not be empty");
         this.client = clientFactory.clientByConfig(this, connection);
+        this.queryFilter = QueryFilter.compile(converterService, query, value -> new UpdateException(UPDATE_QUERY_NULL.format(value)));
+        if (isNotNullOrBlank(document) && !document.isScript() && DocumentUtils.isList(document.value())) {
+            this.staticPipeline = DocumentUtils.listFrom(converterService, document.value(), Unsupported::documentType);
+        } else {
+            this.staticDocument = StaticDocument.compile(converterService, document, Unsupported::documentType);
+        }
+        this.effectiveWriteConcern = WriteConcernUtils.from(
+                client.getDatabase(connection.getDatabase()).getWriteConcern(), writeConcern);
+        this.collectionHandles = new CollectionHandles<>(client, connection.getDatabase(), database, collection,
+                CollectionHandles.DEFAULT_MAX_HANDLES, (mongoDatabase, collectionName) -> mongoDatabase
+                        .getCollection(collectionName)
+                        .withWriteConcern(effectiveWriteConcern));
     }
 
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
-        MongoDatabase mongoDatabase = client.getDatabase(connection.getDatabase());
-        MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collection);
-
-        Object evaluatedQuery = scriptService.evaluate(query, flowContext, message)
-                .orElseThrow(() -> new UpdateException(UPDATE_QUERY_NULL.format(query.value())));
-
-        Object toUpdate =
-                evaluateOrUsePayloadWhenEmpty(document, scriptService, flowContext, message,
-                        () -> new UpdateException(UPDATE_DOCUMENT_EMPTY.format(document.value())));
+        MongoCollection<Document> mongoCollection = collectionHandles.get(scriptService, flowContext, message);
 
         UpdateResult updateResult;
 
-        // Update without pipeline
-        Document toUpdateQuery = DocumentUtils.from(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
-        Document toUpdateDocument = DocumentUtils.from(converterService, toUpdate, Unsupported.documentType(toUpdate));
+        // The query filter and the update document or pipeline
+        // which are not scripts were parsed once at initialize time.
+        Bson toUpdateQuery = queryFilter.resolveRequired(scriptService, flowContext, message).getQuery();
+        Object toUpdate = staticDocument != null ? staticDocument :
+                staticPipeline != null ? staticPipeline :
+                        evaluateDocument(flowContext, message);
+        UpdateOptions options = updateOptions(flowContext, message);
 
-        updateResult = isTrue(many) ?
-                mongoCollection.updateMany(toUpdateQuery, toUpdateDocument) :
-                mongoCollection.updateOne(toUpdateQuery, toUpdateDocument);
+        if (toUpdate instanceof List) {
+            // Update with pipeline.
+            @SuppressWarnings("unchecked")
+            List<Bson> toUpdatePipeline = (List<Bson>) toUpdate;
+            updateResult = isTrue(many) ?
+                    mongoCollection.updateMany(toUpdateQuery, toUpdatePipeline, options) :
+                    mongoCollection.updateOne(toUpdateQuery, toUpdatePipeline, options);
+        } else {
+            Bson toUpdateDocument = (Bson) toUpdate;
+            updateResult = isTrue(many) ?
+                    mongoCollection.updateMany(toUpdateQuery, toUpdateDocument, options) :
+                    mongoCollection.updateOne(toUpdateQuery, toUpdateDocument, options);
+        }
 
-        long modifiedCount = updateResult.getModifiedCount();
+        // The modified count of an unacknowledged update is not known.
+        long modifiedCount = updateResult.wasAcknowledged() ? updateResult.getModifiedCount() : 0;
 
         MessageAttributes attributes = new UpdateAttributes(updateResult);
 
@@ -140,6 +207,27 @@ public class Update implements ProcessorSync {
     public void dispose() {
         clientFactory.dispose(this, connection);
         client = null;
+        collectionHandles = null;
+    }
+
+    // Returns the update document or, if the evaluated value is a list, the update pipeline.
+    private Object evaluateDocument(FlowContext flowContext, Message message) {
+        Object toUpdate =
+                evaluateOrUsePayloadWhenEmpty(document, scriptService, flowContext, message,
+                        () -> new UpdateException(UPDATE_DOCUMENT_EMPTY.format(document.value())));
+        return DocumentUtils.isList(toUpdate) ?
+                DocumentUtils.listFrom(converterService, toUpdate, Unsupported::documentType) :
+                DocumentUtils.toBson(converterService, toUpdate, Unsupported.documentType(toUpdate));
+    }
+
+    private UpdateOptions updateOptions(FlowContext flowContext, Message message) {
+        UpdateOptions options = new UpdateOptions().upsert(isTrue(upsert));
+        if (isNotNullOrBlank(arrayFilters)) {
+            scriptService.evaluate(arrayFilters, flowContext, message)
+                    .map(evaluated -> DocumentUtils.listFrom(converterService, evaluated, Unsupported::queryType))
+                    .ifPresent(options::arrayFilters);
+        }
+        return options;
     }
 
     public void setConnection(ConnectionConfiguration connection) {
@@ -150,7 +238,11 @@ public class Update implements ProcessorSync {
         this.document = document;
     }
 
-    public void setCollection(String collection) {
+    public void setDatabase(DynamicString database) {
+        this.database = database;
+    }
+
+    public void setCollection(DynamicString collection) {
         this.collection = collection;
     }
 
@@ -161,4 +253,16 @@ public class Update implements ProcessorSync {
     public void setMany(Boolean many) {
         this.many = many;
     }
+
+    public void setUpsert(Boolean upsert) {
+        this.upsert = upsert;
+    }
+
+    public void setArrayFilters(DynamicObject arrayFilters) {
+        this.arrayFilters = arrayFilters;
+    }
+
+    public void setWriteConcern(WriteConcernConfiguration writeConcern) {
+        this.writeConcern = writeConcern;
+    }
 }
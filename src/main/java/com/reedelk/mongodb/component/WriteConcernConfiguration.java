@@ -0,0 +1,74 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.runtime.api.annotation.*;
+import com.reedelk.runtime.api.component.Implementor;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+@Component(service = WriteConcernConfiguration.class, scope = ServiceScope.PROTOTYPE)
+public class WriteConcernConfiguration implements Implementor {
+
+    @Property("Unacknowledged")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the write operation does not wait for any acknowledgement from the server (fire and forget). " +
+            "The operation is faster, but write errors are not reported and the number of affected documents is not known. " +
+            "Use it only for data which can be lost, e.g. metrics.")
+    private Boolean unacknowledged;
+
+    @Property("Acknowledgement (w)")
+    @Hint("majority")
+    @Example("majority")
+    @When(propertyName = "unacknowledged", propertyValue = "false")
+    @Description("The number of replica set members which must acknowledge the write, e.g. 1, " +
+            "or 'majority' or the name of a tag set. A lower value trades durability for throughput: " +
+            "1 suits high volume data, 'majority' suits critical data. If empty, the value from the connection URL is used.")
+    private String w;
+
+    @Property("Journal (j)")
+    @Example("true")
+    @When(propertyName = "unacknowledged", propertyValue = "false")
+    @Description("If true, the write is acknowledged only after it has been written to the on-disk journal, " +
+            "e.g. together with w: majority for critical data. If empty, the value from the connection URL is used.")
+    private Boolean journal;
+
+    @Property("Timeout (wtimeout ms)")
+    @Hint("5000")
+    @Example("5000")
+    @When(propertyName = "unacknowledged", propertyValue = "false")
+    @Description("The time limit in milliseconds to wait for the acknowledgement. " +
+            "If empty, the value from the connection URL is used.")
+    private Integer wTimeout;
+
+    public Boolean getUnacknowledged() {
+        return unacknowledged;
+    }
+
+    public void setUnacknowledged(Boolean unacknowledged) {
+        this.unacknowledged = unacknowledged;
+    }
+
+    public String getW() {
+        return w;
+    }
+
+    public void setW(String w) {
+        this.w = w;
+    }
+
+    public Boolean getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Boolean journal) {
+        this.journal = journal;
+    }
+
+    public Integer getWTimeout() {
+        return wTimeout;
+    }
+
+    public void setWTimeout(Integer wTimeout) {
+        this.wTimeout = wTimeout;
+    }
+}
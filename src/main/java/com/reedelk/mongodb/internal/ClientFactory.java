@@ -1,29 +1,48 @@
 package com.reedelk.mongodb.internal;
 
-import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
-import com.mongodb.MongoCredential;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.reedelk.mongodb.component.ConnectionConfiguration;
+import com.reedelk.mongodb.internal.commons.ClientSettings;
+import com.reedelk.mongodb.internal.commons.ClientSettings.Fingerprint;
+import com.reedelk.mongodb.internal.commons.ConnectionWarmUp;
+import com.reedelk.mongodb.internal.exception.ConnectionException;
 import org.osgi.service.component.annotations.Component;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Connection.CONNECTION_WARM_UP_FAILED;
+import static com.reedelk.mongodb.internal.commons.Messages.Connection.CONNECTION_WARM_UP_TIMEOUT;
+import static com.reedelk.mongodb.internal.commons.Utils.isTrue;
 import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
 import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNull;
-import static com.reedelk.runtime.api.commons.StringUtils.isNotBlank;
 
 @Component(service = ClientFactory.class)
 public class ClientFactory {
 
-    final Map<String, ConnectionHolder> configIdClientMap = new HashMap<>();
+    private static final int DEFAULT_WARM_UP_TIMEOUT = 30000;
+
+    // The clients are shared by the connection configurations with the same effective settings (hosts,
+    // credentials and options), e.g. many modules connecting to the same cluster use one connection pool.
+    // Each client is updated atomically without a global lock: different clients are created in parallel,
+    // and the components using the same client wait only for the creation of that client.
+    final ConcurrentMap<Fingerprint, ConnectionHolder> fingerprintClientMap = new ConcurrentHashMap<>();
+    final ConcurrentMap<com.reedelk.runtime.api.component.Component, Fingerprint> componentFingerprintMap = new ConcurrentHashMap<>();
 
-    public synchronized MongoClient clientByConfig(com.reedelk.runtime.api.component.Component component,
-                                                   ConnectionConfiguration connection) {
+    public MongoClient clientByConfig(com.reedelk.runtime.api.component.Component component,
+                                      ConnectionConfiguration connection) {
 
         requireNotNull(component.getClass(), connection, "MongoDB connection must not be null");
 
@@ -31,65 +50,119 @@ public class ClientFactory {
         String connectionURL = connection.getConnectionURL();
         requireNotBlank(component.getClass(), database, "MongoDB database must not be null");
         requireNotBlank(component.getClass(), connectionURL, "MongoDB connection url must not be empty");
-
-        String connectionId = connection.getId();
-
-        if (!configIdClientMap.containsKey(connectionId)) {
-            MongoClient client = createClient(connection);
-            ConnectionHolder connectionHolder = new ConnectionHolder(client);
-            configIdClientMap.put(connectionId, connectionHolder);
+        ClientSettings.validate(component.getClass(), connection);
+
+        MongoClientSettings settings = ClientSettings.from(connection);
+        Fingerprint fingerprint = ClientSettings.fingerprint(settings);
+
+        // The client is not created inside compute, because it would block the other
+        // clients mapped to the same bin of the map.
+        ConnectionHolder connectionHolder = fingerprintClientMap.compute(fingerprint, (key, existing) -> {
+            ConnectionHolder holder = existing != null ? existing : new ConnectionHolder();
+            holder.components.add(component);
+            return holder;
+        });
+        componentFingerprintMap.put(component, fingerprint);
+
+        try {
+            // The warm up is registered on every client, because a component initialized later
+            // with the same settings might enable the warm up of the shared client.
+            MongoClient client = connectionHolder.client(() -> createClient(MongoClientSettings.builder(settings)
+                    .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(connectionHolder.warmUp))
+                    .build()));
+            if (isTrue(connection.getWarmUp())) {
+                warmUp(connectionHolder.warmUp, client, connection, settings.getConnectionPoolSettings().getMinSize());
+            }
+            return client;
+        } catch (RuntimeException exception) {
+            // The client could not be created or warmed up: the component does not use
+            // the connection, so that the next component can try again.
+            dispose(component, connection);
+            throw exception;
         }
-
-        ConnectionHolder connectionHolder = configIdClientMap.get(connectionId);
-        connectionHolder.components.add(component);
-        return connectionHolder.client;
     }
 
-    public synchronized void dispose(
-            com.reedelk.runtime.api.component.Component component,
-            ConnectionConfiguration connection) {
+    // The client used by the component is looked up by component, because the
+    // settings of the connection could not be built if its initialization failed.
+    public void dispose(com.reedelk.runtime.api.component.Component component,
+                        ConnectionConfiguration connection) {
 
-        String connectionId = connection.getId();
+        Fingerprint fingerprint = componentFingerprintMap.remove(component);
+        if (fingerprint == null) return;
 
-        if (configIdClientMap.containsKey(connectionId)) {
-            ConnectionHolder connectionHolder = configIdClientMap.get(connectionId);
-            connectionHolder.components.remove(component);
-            if (connectionHolder.components.isEmpty()) {
-                configIdClientMap.remove(connectionId); // There are no clients using this config.
-                connectionHolder.client.close();
-            }
-        }
-    }
+        AtomicReference<ConnectionHolder> unused = new AtomicReference<>();
+        fingerprintClientMap.computeIfPresent(fingerprint, (key, holder) -> {
+            holder.components.remove(component);
+            if (!holder.components.isEmpty()) return holder;
+            unused.set(holder);
+            return null; // There are no components using this client.
+        });
 
-    public synchronized void dispose() {
-        configIdClientMap.values()
-                .forEach(connectionHolder -> connectionHolder.client.close());
-        configIdClientMap.clear();
+        ConnectionHolder connectionHolder = unused.get();
+        if (connectionHolder != null) connectionHolder.close();
     }
 
-    MongoClient createClient(ConnectionConfiguration connection) {
-        String username = connection.getUsername();
-        String password = connection.getPassword();
-        String database = connection.getDatabase();
-        String connectionURL = connection.getConnectionURL();
+    public void dispose() {
+        fingerprintClientMap.keySet().forEach(fingerprint -> {
+            ConnectionHolder connectionHolder = fingerprintClientMap.remove(fingerprint);
+            if (connectionHolder != null) connectionHolder.close();
+        });
+        componentFingerprintMap.clear();
+    }
 
-        MongoClientSettings.Builder builder = MongoClientSettings.builder();
-        if (isNotBlank(username)) {
-            MongoCredential credential = MongoCredential.createCredential(username, database, password.toCharArray());
-            builder.credential(credential);
+    private void warmUp(ConnectionWarmUp warmUp, MongoClient client, ConnectionConfiguration connection, int minConnections) {
+        CompletableFuture<Void> ready = warmUp.start(client, connection.getDatabase(), minConnections);
+        if (isTrue(connection.getWarmUpInBackground())) return;
+
+        int timeout = Optional.ofNullable(connection.getWarmUpTimeout()).orElse(DEFAULT_WARM_UP_TIMEOUT);
+        try {
+            ready.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            String error = CONNECTION_WARM_UP_TIMEOUT.format(timeout, warmUp.getOpenConnections(), minConnections);
+            throw new ConnectionException(error);
+        } catch (ExecutionException exception) {
+            String error = CONNECTION_WARM_UP_FAILED.format(exception.getCause().getMessage());
+            throw new ConnectionException(error);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            String error = CONNECTION_WARM_UP_FAILED.format(exception.getMessage());
+            throw new ConnectionException(error);
         }
+    }
 
-        builder.applyConnectionString(new ConnectionString(connectionURL));
-        return MongoClients.create(builder.build());
+    MongoClient createClient(MongoClientSettings settings) {
+        return MongoClients.create(settings);
     }
 
     static class ConnectionHolder {
 
-        final MongoClient client;
-        final List<com.reedelk.runtime.api.component.Component> components = new ArrayList<>();
+        final CompletableFuture<MongoClient> client = new CompletableFuture<>();
+        final AtomicBoolean creating = new AtomicBoolean();
+        final Set<com.reedelk.runtime.api.component.Component> components = ConcurrentHashMap.newKeySet();
+        final ConnectionWarmUp warmUp = new ConnectionWarmUp();
+
+        // The first caller creates the client, the other callers wait until it has been created.
+        MongoClient client(Supplier<MongoClient> factory) {
+            if (creating.compareAndSet(false, true)) {
+                try {
+                    client.complete(factory.get());
+                } catch (RuntimeException exception) {
+                    client.completeExceptionally(exception);
+                    throw exception;
+                }
+            }
+            try {
+                return client.join();
+            } catch (CompletionException exception) {
+                Throwable cause = exception.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw exception;
+            }
+        }
 
-        public ConnectionHolder(MongoClient client) {
-            this.client = client;
+        // If the client is still being created, it is closed as soon as it has been created.
+        void close() {
+            client.thenAccept(MongoClient::close);
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.reedelk.mongodb.internal.attribute;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.reedelk.mongodb.internal.commons.ObjectIdUtils;
+import com.reedelk.mongodb.internal.commons.RawDocumentMap;
+import com.reedelk.runtime.api.annotation.Type;
+import com.reedelk.runtime.api.annotation.TypeProperty;
+import com.reedelk.runtime.api.message.MessageAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.reedelk.mongodb.internal.attribute.BulkWriteAttributes.*;
+
+@Type
+@TypeProperty(name = INSERTED_COUNT, type = int.class)
+@TypeProperty(name = MATCHED_COUNT, type = int.class)
+@TypeProperty(name = MODIFIED_COUNT, type = int.class)
+@TypeProperty(name = DELETED_COUNT, type = int.class)
+@TypeProperty(name = UPSERTS, type = List.class)
+@TypeProperty(name = ACKNOWLEDGE, type = boolean.class)
+public class BulkWriteAttributes extends MessageAttributes {
+
+    static final String INSERTED_COUNT = "insertedCount";
+    static final String MATCHED_COUNT = "matchedCount";
+    static final String MODIFIED_COUNT = "modifiedCount";
+    static final String DELETED_COUNT = "deletedCount";
+    static final String UPSERTS = "upserts";
+    static final String ACKNOWLEDGE = "acknowledge";
+
+    static final String UPSERT_INDEX = "index";
+    static final String UPSERT_ID = "id";
+
+    // Each upsert is a map with the index of the operation in the input list and the upserted ID.
+    // The counts of an unacknowledged bulk write are not known: they are zero.
+    public BulkWriteAttributes(BulkWriteResult result) {
+        boolean acknowledged = result.wasAcknowledged();
+        ArrayList<HashMap<String, Object>> upserts = new ArrayList<>();
+        if (acknowledged) {
+            for (BulkWriteUpsert upsert : result.getUpserts()) {
+                HashMap<String, Object> upserted = new HashMap<>();
+                upserted.put(UPSERT_INDEX, upsert.getIndex());
+                upserted.put(UPSERT_ID, ObjectIdUtils.replace(RawDocumentMap.toJava(upsert.getId())));
+                upserts.add(upserted);
+            }
+        }
+        put(INSERTED_COUNT, acknowledged ? result.getInsertedCount() : 0);
+        put(MATCHED_COUNT, acknowledged ? result.getMatchedCount() : 0);
+        put(MODIFIED_COUNT, acknowledged ? result.getModifiedCount() : 0);
+        put(DELETED_COUNT, acknowledged ? result.getDeletedCount() : 0);
+        put(UPSERTS, upserts);
+        put(ACKNOWLEDGE, acknowledged);
+    }
+}
@@ -1,5 +1,6 @@
 package com.reedelk.mongodb.internal.attribute;
 
+import com.reedelk.mongodb.internal.commons.BatchedDelete;
 import com.reedelk.runtime.api.annotation.Type;
 import com.reedelk.runtime.api.annotation.TypeProperty;
 import com.reedelk.runtime.api.message.MessageAttributes;
@@ -12,11 +13,17 @@ import static com.reedelk.mongodb.internal.attribute.DeleteAttributes.*;
 @TypeProperty(name = QUERY, type = String.class)
 @TypeProperty(name = DELETED_COUNT, type = long.class)
 @TypeProperty(name = ACKNOWLEDGE, type = boolean.class)
+@TypeProperty(name = BATCHES, type = int.class)
+@TypeProperty(name = JOB_ID, type = String.class)
+@TypeProperty(name = DONE, type = boolean.class)
 public class DeleteAttributes extends MessageAttributes {
 
     static final String QUERY = "query";
     static final String ACKNOWLEDGE = "acknowledge";
     static final String DELETED_COUNT = "deletedCount";
+    static final String BATCHES = "batches";
+    static final String JOB_ID = "jobId";
+    static final String DONE = "done";
 
     public DeleteAttributes(long deletedCount, boolean acknowledged, Object query) {
         String queryAsString = Optional.ofNullable(query).map(Object::toString).orElse(null);
@@ -24,4 +31,12 @@ public class DeleteAttributes extends MessageAttributes {
         put(ACKNOWLEDGE, acknowledged);
         put(DELETED_COUNT, deletedCount);
     }
+
+    // A batched delete running in the background reports the progress at the time it was started.
+    public DeleteAttributes(BatchedDelete batchedDelete, boolean acknowledged, Object query) {
+        this(batchedDelete.getDeletedCount(), acknowledged, query);
+        put(BATCHES, batchedDelete.getBatches());
+        put(JOB_ID, batchedDelete.getId());
+        put(DONE, batchedDelete.isDone());
+    }
 }
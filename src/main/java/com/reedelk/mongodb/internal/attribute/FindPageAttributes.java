@@ -0,0 +1,33 @@
+package com.reedelk.mongodb.internal.attribute;
+
+import com.reedelk.runtime.api.annotation.Type;
+import com.reedelk.runtime.api.annotation.TypeProperty;
+import com.reedelk.runtime.api.message.MessageAttributes;
+
+import java.util.Optional;
+
+import static com.reedelk.mongodb.internal.attribute.FindPageAttributes.*;
+
+@Type
+@TypeProperty(name = COLLECTION, type = String.class)
+@TypeProperty(name = QUERY, type = String.class)
+@TypeProperty(name = PAGE_SIZE, type = int.class)
+@TypeProperty(name = HAS_MORE, type = boolean.class)
+@TypeProperty(name = CONTINUATION_TOKEN, type = String.class)
+public class FindPageAttributes extends MessageAttributes {
+
+    static final String COLLECTION = "collection";
+    static final String QUERY = "query";
+    static final String PAGE_SIZE = "pageSize";
+    static final String HAS_MORE = "hasMore";
+    static final String CONTINUATION_TOKEN = "continuationToken";
+
+    public FindPageAttributes(String collection, Object query, int pageSize, String continuationToken) {
+        String queryAsString = Optional.ofNullable(query).map(Object::toString).orElse(null);
+        put(COLLECTION, collection);
+        put(QUERY, queryAsString);
+        put(PAGE_SIZE, pageSize);
+        put(HAS_MORE, continuationToken != null);
+        put(CONTINUATION_TOKEN, continuationToken);
+    }
+}
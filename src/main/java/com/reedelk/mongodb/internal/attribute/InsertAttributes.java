@@ -0,0 +1,51 @@
+package com.reedelk.mongodb.internal.attribute;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.reedelk.runtime.api.annotation.Type;
+import com.reedelk.runtime.api.annotation.TypeProperty;
+import com.reedelk.runtime.api.message.MessageAttributes;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.reedelk.mongodb.internal.attribute.InsertAttributes.*;
+
+@Type
+@TypeProperty(name = INSERTED_IDS, type = List.class)
+@TypeProperty(name = INSERTED_COUNT, type = int.class)
+@TypeProperty(name = FAILED_COUNT, type = int.class)
+@TypeProperty(name = FAILURES, type = List.class)
+@TypeProperty(name = ACKNOWLEDGE, type = boolean.class)
+public class InsertAttributes extends MessageAttributes {
+
+    static final String INSERTED_IDS = "insertedIds";
+    static final String INSERTED_COUNT = "insertedCount";
+    static final String FAILED_COUNT = "failedCount";
+    static final String FAILURES = "failures";
+    static final String ACKNOWLEDGE = "acknowledge";
+
+    static final String FAILURE_INDEX = "index";
+    static final String FAILURE_CODE = "code";
+    static final String FAILURE_MESSAGE = "message";
+
+    // Each failure is a map with the index of the document in the input
+    // list, the error code and the error message returned by the server. Unacknowledged
+    // inserts never report failures, because the server does not return any error.
+    public InsertAttributes(List<Object> insertedIds, List<BulkWriteError> errors, boolean acknowledged) {
+        ArrayList<HashMap<String, Serializable>> failures = new ArrayList<>();
+        for (BulkWriteError error : errors) {
+            HashMap<String, Serializable> failure = new HashMap<>();
+            failure.put(FAILURE_INDEX, error.getIndex());
+            failure.put(FAILURE_CODE, error.getCode());
+            failure.put(FAILURE_MESSAGE, error.getMessage());
+            failures.add(failure);
+        }
+        put(INSERTED_IDS, new ArrayList<>(insertedIds));
+        put(INSERTED_COUNT, insertedIds.size());
+        put(FAILED_COUNT, failures.size());
+        put(FAILURES, failures);
+        put(ACKNOWLEDGE, acknowledged);
+    }
+}
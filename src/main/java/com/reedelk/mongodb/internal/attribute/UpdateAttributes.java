@@ -1,29 +1,35 @@
 package com.reedelk.mongodb.internal.attribute;
 
 import com.mongodb.client.result.UpdateResult;
+import com.reedelk.mongodb.internal.commons.ObjectIdUtils;
+import com.reedelk.mongodb.internal.commons.RawDocumentMap;
 import com.reedelk.runtime.api.annotation.Type;
 import com.reedelk.runtime.api.annotation.TypeProperty;
 import com.reedelk.runtime.api.message.MessageAttributes;
 
 import java.util.Optional;
 
-import static com.reedelk.mongodb.internal.attribute.UpdateAttributes.MATCHED_COUNT;
-import static com.reedelk.mongodb.internal.attribute.UpdateAttributes.UPSERTED_ID;
+import static com.reedelk.mongodb.internal.attribute.UpdateAttributes.*;
 
 @Type
 @TypeProperty(name = MATCHED_COUNT, type = long.class)
 @TypeProperty(name = UPSERTED_ID, type = String.class)
+@TypeProperty(name = ACKNOWLEDGE, type = boolean.class)
 public class UpdateAttributes extends MessageAttributes {
 
     static final String MATCHED_COUNT = "matchedCount";
     static final String UPSERTED_ID = "upsertedId";
+    static final String ACKNOWLEDGE = "acknowledge";
 
+    // The counts of an unacknowledged update are not known: they are zero.
     public UpdateAttributes(UpdateResult updateResult) {
-        long matchedCount = updateResult.getMatchedCount();
-        String upsertedId = Optional.ofNullable(updateResult.getUpsertedId())
-                .map(Object::toString)
+        boolean acknowledged = updateResult.wasAcknowledged();
+        long matchedCount = acknowledged ? updateResult.getMatchedCount() : 0;
+        String upsertedId = Optional.ofNullable(acknowledged ? updateResult.getUpsertedId() : null)
+                .map(id -> String.valueOf(ObjectIdUtils.replace(RawDocumentMap.toJava(id))))
                 .orElse(null);
         put(MATCHED_COUNT, matchedCount);
         put(UPSERTED_ID, upsertedId);
+        put(ACKNOWLEDGE, acknowledged);
     }
 }
@@ -0,0 +1,110 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.reedelk.mongodb.internal.commons.ObjectIdUtils.OBJECT_ID_PROPERTY;
+
+// Deletes the documents matching a query in batches of at most the given number of documents ordered
+// by _id, pausing between the batches, so that a very large delete does not flood the oplog and the
+// replication. The progress can be read while the delete is running, e.g. when it runs in the background.
+// The collection must use an acknowledged write concern: the deleted count of each batch is needed, and an
+// unacknowledged delete might not be applied yet when the next batch is read, which would read it again.
+public class BatchedDelete {
+
+    private final String id = UUID.randomUUID().toString();
+    private final MongoCollection<Document> collection;
+    private final Bson query;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final AtomicLong deletedCount = new AtomicLong();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    public BatchedDelete(MongoCollection<Document> collection, Bson query, int batchSize, long pauseMillis) {
+        this.collection = collection;
+        this.query = query;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    // Returns the number of deleted documents.
+    public long run() {
+        if (!started.compareAndSet(false, true)) return deletedCount.get();
+        try {
+            while (!cancelled) {
+                // Only the IDs of the next batch are read. Each batch is deleted with the query as well,
+                // so that a document modified after it was read is not deleted if it does not match anymore.
+                List<Object> ids = collection.find(query)
+                        .projection(Projections.include(OBJECT_ID_PROPERTY))
+                        .sort(Sorts.ascending(OBJECT_ID_PROPERTY))
+                        .limit(batchSize)
+                        .map(document -> document.get(OBJECT_ID_PROPERTY))
+                        .into(new ArrayList<>());
+                if (ids.isEmpty()) break;
+
+                DeleteResult deleteResult = collection.deleteMany(Filters.and(query, Filters.in(OBJECT_ID_PROPERTY, ids)));
+                deletedCount.addAndGet(deleteResult.getDeletedCount());
+                batches.incrementAndGet();
+
+                if (ids.size() < batchSize) break;
+                if (pauseMillis > 0) Thread.sleep(pauseMillis);
+            }
+            result.complete(deletedCount.get());
+        } catch (InterruptedException | MongoInterruptedException exception) {
+            // Interrupted while pausing or while waiting for the database, e.g. when the component is disposed.
+            Thread.currentThread().interrupt();
+            result.complete(deletedCount.get());
+        } catch (RuntimeException exception) {
+            result.completeExceptionally(exception);
+            throw exception;
+        }
+        return deletedCount.get();
+    }
+
+    // The batch being deleted is completed before stopping. A delete
+    // which has not started yet will never run: its result is cancelled.
+    public void cancel() {
+        cancelled = true;
+        if (started.compareAndSet(false, true)) {
+            result.cancel(false);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getDeletedCount() {
+        return deletedCount.get();
+    }
+
+    public int getBatches() {
+        return batches.get();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    public CompletableFuture<Long> getResult() {
+        return result;
+    }
+}
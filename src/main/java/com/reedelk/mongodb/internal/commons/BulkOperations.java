@@ -0,0 +1,114 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.model.*;
+import com.reedelk.mongodb.internal.exception.BulkWriteException;
+import com.reedelk.runtime.api.converter.ConverterService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.reedelk.mongodb.internal.commons.Messages.BulkWrite.*;
+
+// Converts the operation descriptors of a bulk write into write models. Each operation is a document
+// with the type of the operation as only key, e.g. { updateOne: { filter: { _id: 1 }, document: { $set: { a: 2 } }, upsert: true } }.
+// Insert operations only need the document, delete operations only need the filter.
+public class BulkOperations {
+
+    static final String INSERT_ONE = "insertOne";
+    static final String UPDATE_ONE = "updateOne";
+    static final String UPDATE_MANY = "updateMany";
+    static final String REPLACE_ONE = "replaceOne";
+    static final String DELETE_ONE = "deleteOne";
+    static final String DELETE_MANY = "deleteMany";
+
+    static final String FILTER = "filter";
+    static final String DOCUMENT = "document";
+    static final String UPSERT = "upsert";
+
+    private static final String OPERATIONS = "operations";
+
+    private BulkOperations() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<WriteModel<Document>> from(ConverterService converterService, Object operationsObject) {
+        List<Object> operations;
+        if (operationsObject instanceof List) {
+            operations = (List<Object>) operationsObject;
+        } else if (operationsObject instanceof String || operationsObject instanceof byte[]) {
+            // A JSON array can only be parsed as the value of a document field.
+            String json = operationsObject instanceof String ?
+                    (String) operationsObject :
+                    converterService.convert(operationsObject, String.class);
+            Object parsed = Document.parse("{ \"" + OPERATIONS + "\": " + json + " }").get(OPERATIONS);
+            if (!(parsed instanceof List)) {
+                throw new BulkWriteException(BULK_WRITE_OPERATIONS_NOT_SUPPORTED.format(Utils.classNameOrNull(parsed)));
+            }
+            operations = (List<Object>) parsed;
+        } else {
+            throw new BulkWriteException(BULK_WRITE_OPERATIONS_NOT_SUPPORTED.format(Utils.classNameOrNull(operationsObject)));
+        }
+
+        List<WriteModel<Document>> models = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            models.add(model(converterService, operations.get(index), index));
+        }
+        return models;
+    }
+
+    private static WriteModel<Document> model(ConverterService converterService, Object operationObject, int index) {
+        Document operation = DocumentUtils.from(converterService, operationObject, () -> notValid(index, operationObject));
+        if (operation.size() != 1) throw notValid(index, operation.keySet());
+
+        Map.Entry<String, Object> entry = operation.entrySet().iterator().next();
+        String type = entry.getKey();
+        Document arguments = DocumentUtils.from(converterService, entry.getValue(), () -> notValid(index, entry.getValue()));
+        boolean upsert = Boolean.TRUE.equals(arguments.get(UPSERT));
+
+        switch (type) {
+            case INSERT_ONE:
+                // The ID is generated here, so that the IDs of the inserted documents can be returned.
+                Document document = required(converterService, arguments, DOCUMENT, type, index);
+                document.computeIfAbsent(ObjectIdUtils.OBJECT_ID_PROPERTY, key -> new ObjectId());
+                return new InsertOneModel<>(document);
+            case UPDATE_ONE:
+                return new UpdateOneModel<>(
+                        required(converterService, arguments, FILTER, type, index),
+                        required(converterService, arguments, DOCUMENT, type, index),
+                        new UpdateOptions().upsert(upsert));
+            case UPDATE_MANY:
+                return new UpdateManyModel<>(
+                        required(converterService, arguments, FILTER, type, index),
+                        required(converterService, arguments, DOCUMENT, type, index),
+                        new UpdateOptions().upsert(upsert));
+            case REPLACE_ONE:
+                return new ReplaceOneModel<>(
+                        required(converterService, arguments, FILTER, type, index),
+                        required(converterService, arguments, DOCUMENT, type, index),
+                        new ReplaceOptions().upsert(upsert));
+            case DELETE_ONE:
+                return new DeleteOneModel<>(required(converterService, arguments, FILTER, type, index));
+            case DELETE_MANY:
+                return new DeleteManyModel<>(required(converterService, arguments, FILTER, type, index));
+            default:
+                throw notValid(index, type);
+        }
+    }
+
+    private static Document required(ConverterService converterService, Document arguments, String field, String type, int index) {
+        Object value = arguments.get(field);
+        if (value == null) {
+            throw new BulkWriteException(BULK_WRITE_OPERATION_FIELD_MISSING.format(type, index, field));
+        }
+        return DocumentUtils.from(converterService, value, FILTER.equals(field) ?
+                Unsupported.queryType(value) :
+                Unsupported.documentType(value));
+    }
+
+    private static BulkWriteException notValid(int index, Object found) {
+        return new BulkWriteException(BULK_WRITE_OPERATION_NOT_VALID.format(index, found));
+    }
+}
@@ -0,0 +1,118 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.RawBsonDocument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Comparator.comparingInt;
+
+// Inserts the chunks of a list of documents. Ordered chunks are inserted one after the other by the calling
+// thread and the first write error stops the insert: the chunks given after it are not inserted. Unordered chunks are inserted in parallel (at most the given
+// number at the same time) and all the documents without errors are inserted: the write errors of all
+// the chunks are collected, with their index relative to the whole list of documents. If an unordered chunk
+// fails with an error which is not a write error (e.g. the connection was lost), no further chunks are inserted.
+public class ChunkedInsert {
+
+    private final MongoCollection<RawBsonDocument> collection;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    private final List<CompletableFuture<List<BulkWriteError>>> unorderedChunks = new ArrayList<>();
+    private List<BulkWriteError> orderedErrors = Collections.emptyList();
+    private volatile boolean unorderedFailed;
+    private int offset;
+
+    private ChunkedInsert(MongoCollection<RawBsonDocument> collection, ExecutorService executor, int parallelChunks) {
+        this.collection = collection;
+        this.executor = executor;
+        this.inFlight = new Semaphore(parallelChunks);
+    }
+
+    public static ChunkedInsert ordered(MongoCollection<RawBsonDocument> collection) {
+        return new ChunkedInsert(collection, null, 1);
+    }
+
+    public static ChunkedInsert unordered(MongoCollection<RawBsonDocument> collection, ExecutorService executor, int parallelChunks) {
+        return new ChunkedInsert(collection, executor, parallelChunks);
+    }
+
+    public void insert(List<RawBsonDocument> chunk) {
+        int chunkOffset = offset;
+        offset += chunk.size();
+
+        if (executor == null) {
+            if (hasFailed()) return;
+            try {
+                collection.insertMany(chunk);
+            } catch (MongoBulkWriteException exception) {
+                orderedErrors = withOffset(exception, chunkOffset);
+            }
+            return;
+        }
+
+        // Waiting for a free slot bounds the number of chunks held in memory.
+        // A chunk might fail while waiting, therefore the check is done after it.
+        inFlight.acquireUninterruptibly();
+        if (hasFailed()) {
+            inFlight.release();
+            return;
+        }
+        CompletableFuture<List<BulkWriteError>> result =
+                CompletableFuture.supplyAsync(() -> insertUnordered(chunk, chunkOffset), executor);
+        result.whenComplete((errors, exception) -> {
+            // Set before the slot is released, so that it is seen by the next chunk waiting for it.
+            if (exception != null) unorderedFailed = true;
+            inFlight.release();
+        });
+        unorderedChunks.add(result);
+    }
+
+    // True if an ordered insert stopped because of a write error or an unordered chunk failed:
+    // the chunks given after it are not inserted.
+    public boolean hasFailed() {
+        return !orderedErrors.isEmpty() || unorderedFailed;
+    }
+
+    // Waits for all the chunks to be inserted and returns the write errors sorted by index.
+    public List<BulkWriteError> complete() {
+        if (unorderedChunks.isEmpty()) return orderedErrors;
+        List<BulkWriteError> errors = new ArrayList<>();
+        try {
+            unorderedChunks.forEach(chunk -> errors.addAll(chunk.join()));
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        errors.sort(comparingInt(BulkWriteError::getIndex));
+        return errors;
+    }
+
+    private List<BulkWriteError> insertUnordered(List<RawBsonDocument> chunk, int chunkOffset) {
+        try {
+            collection.insertMany(chunk, new InsertManyOptions().ordered(false));
+            return Collections.emptyList();
+        } catch (MongoBulkWriteException exception) {
+            return withOffset(exception, chunkOffset);
+        }
+    }
+
+    // The index of a write error is relative to its chunk: it is made relative to the whole list of documents.
+    private static List<BulkWriteError> withOffset(MongoBulkWriteException exception, int chunkOffset) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        exception.getWriteErrors().forEach(error -> errors.add(new BulkWriteError(
+                error.getCode(), error.getMessage(), error.getDetails(), error.getIndex() + chunkOffset)));
+        return errors;
+    }
+}
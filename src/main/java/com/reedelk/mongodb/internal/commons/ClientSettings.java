@@ -0,0 +1,225 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.MongoCredential;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterSettings;
+import com.reedelk.mongodb.component.ConnectionConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static com.reedelk.runtime.api.commons.StringUtils.isBlank;
+import static com.reedelk.runtime.api.commons.StringUtils.isNotBlank;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class ClientSettings {
+
+    private ClientSettings() {
+    }
+
+    public static void validate(Class<?> component, ConnectionConfiguration connection) {
+        Integer maxPoolSize = connection.getMaxPoolSize();
+        Integer minPoolSize = connection.getMinPoolSize();
+        requireTrue(component, maxPoolSize == null || maxPoolSize > 0, "MongoDB max pool size must be greater than 0");
+        requireTrue(component, minPoolSize == null || minPoolSize >= 0, "MongoDB min pool size must not be negative");
+        requireTrue(component, maxPoolSize == null || minPoolSize == null || minPoolSize <= maxPoolSize,
+                "MongoDB min pool size must not be greater than max pool size");
+        requireTrue(component, isNullOrNotNegative(connection.getMaxWaitTime()), "MongoDB max wait time must not be negative");
+        requireTrue(component, isNullOrNotNegative(connection.getMaxConnectionIdleTime()), "MongoDB max connection idle time must not be negative");
+        requireTrue(component, isNullOrNotNegative(connection.getMaxConnectionLifeTime()), "MongoDB max connection life time must not be negative");
+        requireTrue(component, isNullOrNotNegative(connection.getConnectTimeout()), "MongoDB connect timeout must not be negative");
+        requireTrue(component, isNullOrNotNegative(connection.getSocketTimeout()), "MongoDB socket timeout must not be negative");
+        requireTrue(component, connection.getHeartbeatFrequency() == null || connection.getHeartbeatFrequency() > 0,
+                "MongoDB heartbeat frequency must be greater than 0");
+        requireTrue(component, isNullOrNotNegative(connection.getLocalThreshold()), "MongoDB local threshold must not be negative");
+        requireTrue(component, connection.getWarmUpTimeout() == null || connection.getWarmUpTimeout() > 0,
+                "MongoDB warm up timeout must be greater than 0");
+        Integer zlibCompressionLevel = connection.getZlibCompressionLevel();
+        requireTrue(component, zlibCompressionLevel == null || (zlibCompressionLevel >= -1 && zlibCompressionLevel <= 9),
+                "MongoDB zlib compression level must be between -1 and 9");
+        for (String name : compressorNames(connection.getCompressors())) {
+            Compressor compressor = Compressor.of(name);
+            requireTrue(component, compressor != null,
+                    "MongoDB compressor '" + name + "' is not supported, supported compressors are: snappy, zlib, zstd");
+            requireTrue(component, compressor.isAvailable(),
+                    "MongoDB compressor '" + name + "' requires the " + compressor.library + " library");
+        }
+    }
+
+    // The settings of the configuration are applied after the connection URL,
+    // therefore they override the same options given as URL query parameters.
+    // The returned settings are normalized, so that equal settings can share
+    // the same client, e.g. the order of the hosts in the URL does not matter.
+    public static MongoClientSettings from(ConnectionConfiguration connection) {
+        String username = connection.getUsername();
+        String password = connection.getPassword();
+        String database = connection.getDatabase();
+        String connectionURL = connection.getConnectionURL();
+
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+        if (isNotBlank(username)) {
+            MongoCredential credential = MongoCredential.createCredential(username, database, password.toCharArray());
+            builder.credential(credential);
+        }
+
+        builder.applyConnectionString(new ConnectionString(connectionURL));
+
+        builder.applyToClusterSettings(cluster -> {
+            ClusterSettings current = cluster.build();
+            if (current.getSrvHost() == null) {
+                List<ServerAddress> hosts = new ArrayList<>(current.getHosts());
+                hosts.sort(Comparator.comparing(ServerAddress::toString));
+                cluster.hosts(hosts);
+            }
+            if (connection.getLocalThreshold() != null) cluster.localThreshold(connection.getLocalThreshold(), MILLISECONDS);
+        });
+
+        List<String> compressors = compressorNames(connection.getCompressors());
+        if (!compressors.isEmpty()) {
+            builder.compressorList(compressorsFrom(compressors, connection.getZlibCompressionLevel()));
+        }
+
+        builder.applyToConnectionPoolSettings(pool -> {
+            if (connection.getMaxPoolSize() != null) pool.maxSize(connection.getMaxPoolSize());
+            if (connection.getMinPoolSize() != null) pool.minSize(connection.getMinPoolSize());
+            if (connection.getMaxWaitTime() != null) pool.maxWaitTime(connection.getMaxWaitTime(), MILLISECONDS);
+            if (connection.getMaxConnectionIdleTime() != null) pool.maxConnectionIdleTime(connection.getMaxConnectionIdleTime(), MILLISECONDS);
+            if (connection.getMaxConnectionLifeTime() != null) pool.maxConnectionLifeTime(connection.getMaxConnectionLifeTime(), MILLISECONDS);
+        });
+
+        builder.applyToSocketSettings(socket -> {
+            if (connection.getConnectTimeout() != null) socket.connectTimeout(connection.getConnectTimeout(), MILLISECONDS);
+            if (connection.getSocketTimeout() != null) socket.readTimeout(connection.getSocketTimeout(), MILLISECONDS);
+        });
+
+        builder.applyToServerSettings(server -> {
+            if (connection.getHeartbeatFrequency() != null) server.heartbeatFrequency(connection.getHeartbeatFrequency(), MILLISECONDS);
+        });
+
+        return builder.build();
+    }
+
+    // The client settings do not implement equals: the fingerprint contains all the effective settings
+    // which define a client, so that equal fingerprints can share the same client and connection pool.
+    public static Fingerprint fingerprint(MongoClientSettings settings) {
+        return new Fingerprint(Arrays.asList(
+                settings.getCredential(),
+                settings.getClusterSettings(),
+                settings.getConnectionPoolSettings(),
+                settings.getSocketSettings(),
+                settings.getHeartbeatSocketSettings(),
+                settings.getServerSettings(),
+                settings.getSslSettings(),
+                settings.getReadPreference(),
+                settings.getReadConcern(),
+                settings.getWriteConcern(),
+                settings.getRetryWrites(),
+                settings.getRetryReads(),
+                settings.getApplicationName(),
+                compressorsFingerprint(settings.getCompressorList()),
+                settings.getUuidRepresentation()));
+    }
+
+    // The compressors are compared by name and compression level only, independently
+    // of how the driver version in use implements equality of the compressor objects.
+    private static List<String> compressorsFingerprint(List<MongoCompressor> compressors) {
+        List<String> fingerprint = new ArrayList<>();
+        for (MongoCompressor compressor : compressors) {
+            Integer level = compressor.getProperty(MongoCompressor.LEVEL, null);
+            fingerprint.add(level == null ? compressor.getName() : compressor.getName() + ":" + level);
+        }
+        return fingerprint;
+    }
+
+    private static List<String> compressorNames(String compressors) {
+        List<String> names = new ArrayList<>();
+        if (isBlank(compressors)) return names;
+        for (String compressor : compressors.split(",")) {
+            if (isNotBlank(compressor)) names.add(compressor.trim().toLowerCase());
+        }
+        return names;
+    }
+
+    private static List<MongoCompressor> compressorsFrom(List<String> names, Integer zlibCompressionLevel) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names) {
+            Compressor compressor = Compressor.of(name);
+            if (compressor == Compressor.SNAPPY) {
+                compressors.add(MongoCompressor.createSnappyCompressor());
+            } else if (compressor == Compressor.ZSTD) {
+                compressors.add(MongoCompressor.createZstdCompressor());
+            } else {
+                MongoCompressor zlib = MongoCompressor.createZlibCompressor();
+                compressors.add(zlibCompressionLevel == null ? zlib : zlib.withProperty(MongoCompressor.LEVEL, zlibCompressionLevel));
+            }
+        }
+        return compressors;
+    }
+
+    private static boolean isNullOrNotNegative(Integer value) {
+        return value == null || value >= 0;
+    }
+
+    // The snappy and zstd libraries are optional dependencies of the module: their classes are looked
+    // up so that a missing library fails at initialize time and not when the first message is sent.
+    // The lookup uses the driver class loader, since it is the driver which loads the codec classes.
+    private enum Compressor {
+
+        SNAPPY("snappy-java", "org.xerial.snappy.Snappy"),
+        ZLIB("JVM zlib", null),
+        ZSTD("zstd-jni", "com.github.luben.zstd.Zstd");
+
+        private final String library;
+        private final String libraryClass;
+
+        Compressor(String library, String libraryClass) {
+            this.library = library;
+            this.libraryClass = libraryClass;
+        }
+
+        static Compressor of(String name) {
+            for (Compressor compressor : values()) {
+                if (compressor.name().equalsIgnoreCase(name)) return compressor;
+            }
+            return null;
+        }
+
+        boolean isAvailable() {
+            if (libraryClass == null) return true;
+            try {
+                Class.forName(libraryClass, false, MongoCompressor.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError exception) {
+                return false;
+            }
+        }
+    }
+
+    public static final class Fingerprint {
+
+        private final List<Object> values;
+
+        private Fingerprint(List<Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Fingerprint that = (Fingerprint) o;
+            return values.equals(that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.reedelk.mongodb.internal.exception.CollectionException;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Collection.COLLECTION_NAME_EMPTY;
+import static com.reedelk.mongodb.internal.commons.Messages.Collection.DATABASE_NAME_EMPTY;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+import static com.reedelk.runtime.api.commons.StringUtils.isBlank;
+
+// Resolves the collection handle used by a component for each message. If the database and the collection
+// names are static, the handle is resolved only once. If at least one of them is an expression (e.g. to route
+// the messages of each tenant to its own collection), the names are evaluated for each message and the handles
+// are kept in a bounded LRU cache, so that the read/write concerns and codecs are not attached again for each message.
+public class CollectionHandles<T> {
+
+    public static final int DEFAULT_MAX_HANDLES = 100;
+
+    private final MongoClient client;
+    private final String connectionDatabase;
+    private final DynamicString database;
+    private final DynamicString collection;
+    private final BiFunction<MongoDatabase, String, MongoCollection<T>> handleFactory;
+    private final MongoCollection<T> staticHandle;
+    private final Map<String, MongoCollection<T>> handles;
+
+    // The handle factory creates the handle of the given collection name with the options of the component.
+    public CollectionHandles(MongoClient client,
+                             String connectionDatabase,
+                             DynamicString database,
+                             DynamicString collection,
+                             int maxHandles,
+                             BiFunction<MongoDatabase, String, MongoCollection<T>> handleFactory) {
+        this.client = client;
+        this.connectionDatabase = connectionDatabase;
+        this.database = database;
+        this.collection = collection;
+        this.handleFactory = handleFactory;
+        this.handles = new LinkedHashMap<String, MongoCollection<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MongoCollection<T>> eldest) {
+                return size() > maxHandles;
+            }
+        };
+        this.staticHandle = isStatic() ?
+                handle(isNullOrBlank(database) ? connectionDatabase : database.value(), collection.value()) :
+                null;
+    }
+
+    public boolean isStatic() {
+        return !isScript(database) && !isScript(collection);
+    }
+
+    // The handle of the static database and collection names, null if one of them is an expression.
+    public MongoCollection<T> staticHandle() {
+        return staticHandle;
+    }
+
+    public MongoCollection<T> get(ScriptEngineService scriptService, FlowContext flowContext, Message message) {
+        if (staticHandle != null) return staticHandle;
+
+        String databaseName = isNullOrBlank(database) ?
+                connectionDatabase :
+                evaluate(scriptService, database, flowContext, message, DATABASE_NAME_EMPTY);
+        String collectionName = evaluate(scriptService, collection, flowContext, message, COLLECTION_NAME_EMPTY);
+
+        // Database names cannot contain dots, therefore the key is unique.
+        String key = databaseName + "." + collectionName;
+        synchronized (handles) {
+            return handles.computeIfAbsent(key, unused -> handle(databaseName, collectionName));
+        }
+    }
+
+    int size() {
+        synchronized (handles) {
+            return handles.size();
+        }
+    }
+
+    private MongoCollection<T> handle(String databaseName, String collectionName) {
+        return handleFactory.apply(client.getDatabase(databaseName), collectionName);
+    }
+
+    private static String evaluate(ScriptEngineService scriptService,
+                                   DynamicString name,
+                                   FlowContext flowContext,
+                                   Message message,
+                                   Messages.Collection error) {
+        if (!name.isScript()) return name.value();
+        String evaluated = scriptService.evaluate(name, flowContext, message).orElse(null);
+        if (isBlank(evaluated)) throw new CollectionException(error.format(name.value()));
+        return evaluated;
+    }
+
+    private static boolean isScript(DynamicString name) {
+        return name != null && name.isScript();
+    }
+}
@@ -0,0 +1,96 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.*;
+import org.bson.Document;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Pings the database to establish the first connection (including TLS handshake and authentication),
+// and then waits until the connection pool of each server has opened the minimum number of connections,
+// which the pools open in the background. The connection pool events are received by registering the
+// warm up as connection pool listener of the client.
+public class ConnectionWarmUp extends ConnectionPoolListenerAdapter {
+
+    private final ConcurrentMap<ServerId, AtomicInteger> openConnections = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> ready = new AtomicReference<>();
+    private volatile int minConnections;
+    private volatile boolean pinged;
+
+    // The warm up runs once for each client: while it is running or after it succeeded the following calls
+    // return the same readiness. A failed warm up is started again, so that the next component can retry.
+    // The ping runs in its own thread, so that the caller can wait for the readiness with a timeout
+    // shorter than the server selection timeout of the client.
+    public CompletableFuture<Void> start(MongoClient client, String database, int minConnections) {
+        CompletableFuture<Void> current = ready.get();
+        if (current != null && !current.isCompletedExceptionally()) return current;
+
+        CompletableFuture<Void> attempt = new CompletableFuture<>();
+        if (!ready.compareAndSet(current, attempt)) return ready.get();
+
+        this.minConnections = minConnections;
+        this.pinged = false;
+        Thread thread = new Thread(() -> ping(client, database, attempt), "mongodb-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return attempt;
+    }
+
+    // The number of open connections of each server, sorted by server address.
+    public Map<String, Integer> getOpenConnections() {
+        Map<String, Integer> connections = new TreeMap<>();
+        openConnections.forEach((serverId, count) -> connections.put(serverId.getAddress().toString(), count.get()));
+        return connections;
+    }
+
+    @Override
+    public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+        openConnections.putIfAbsent(event.getServerId(), new AtomicInteger());
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        openConnections.remove(event.getServerId());
+        completeIfWarm();
+    }
+
+    @Override
+    public void connectionAdded(ConnectionAddedEvent event) {
+        openConnections.computeIfAbsent(event.getConnectionId().getServerId(), serverId -> new AtomicInteger())
+                .incrementAndGet();
+        completeIfWarm();
+    }
+
+    @Override
+    public void connectionRemoved(ConnectionRemovedEvent event) {
+        AtomicInteger count = openConnections.get(event.getConnectionId().getServerId());
+        if (count != null) count.decrementAndGet();
+    }
+
+    private void ping(MongoClient client, String database, CompletableFuture<Void> attempt) {
+        try {
+            client.getDatabase(database).runCommand(new Document("ping", 1));
+            pinged = true;
+            completeIfWarm();
+        } catch (RuntimeException exception) {
+            attempt.completeExceptionally(exception);
+        }
+    }
+
+    // The min pool size applies to the pool of each server.
+    private void completeIfWarm() {
+        CompletableFuture<Void> current = ready.get();
+        if (current == null || !pinged) return;
+        for (AtomicInteger count : openConnections.values()) {
+            if (count.get() < minConnections) return;
+        }
+        current.complete(null);
+    }
+}
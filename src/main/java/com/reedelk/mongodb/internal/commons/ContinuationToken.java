@@ -0,0 +1,63 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.runtime.api.exception.PlatformException;
+import org.bson.BSONException;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import java.util.Base64;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// A continuation token is the last seen sort key value of a page, together with the last seen _id
+// when the sort key is not the _id, so that documents sharing the same sort key value are not skipped.
+// The values are encoded as canonical extended JSON (so that the BSON type of the key, e.g. ObjectId or Date,
+// is preserved) and then as URL safe Base64 so that it can be passed around in query parameters and headers.
+public class ContinuationToken {
+
+    private static final String KEY = "k";
+    private static final String ID = "i";
+
+    private static final JsonWriterSettings SETTINGS =
+            JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final BsonValue lastKey;
+    private final BsonValue lastId;
+
+    private ContinuationToken(BsonValue lastKey, BsonValue lastId) {
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    public BsonValue lastKey() {
+        return lastKey;
+    }
+
+    // Null if the sort key is the _id.
+    public BsonValue lastId() {
+        return lastId;
+    }
+
+    public static String encode(BsonValue lastKey, BsonValue lastId) {
+        BsonDocument token = new BsonDocument(KEY, lastKey);
+        if (lastId != null) token.put(ID, lastId);
+        String json = token.toJson(SETTINGS);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(UTF_8));
+    }
+
+    public static ContinuationToken decode(String token, Supplier<? extends PlatformException> exception) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+            BsonDocument document = BsonDocument.parse(json);
+            BsonValue lastKey = document.get(KEY);
+            if (lastKey == null) throw exception.get();
+            return new ContinuationToken(lastKey, document.get(ID));
+        } catch (IllegalArgumentException | BSONException | JsonParseException error) {
+            throw exception.get();
+        }
+    }
+}
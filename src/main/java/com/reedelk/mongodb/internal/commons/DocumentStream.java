@@ -0,0 +1,34 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Function;
+
+import static com.reedelk.mongodb.internal.commons.JsonArrayEncoder.JSON_ARRAY_END;
+import static com.reedelk.mongodb.internal.commons.JsonArrayEncoder.JSON_ARRAY_SEPARATOR;
+import static com.reedelk.mongodb.internal.commons.JsonArrayEncoder.JSON_ARRAY_START;
+
+public class DocumentStream {
+
+    private DocumentStream() {
+    }
+
+    // The cursor is opened only when the stream is subscribed and it is
+    // always closed when the stream completes, fails or it is cancelled.
+    public static <T, R> Flux<R> from(MongoIterable<T> documents, Function<T, R> mapper) {
+        return Flux.using(documents::iterator,
+                cursor -> Flux.fromIterable(() -> cursor).map(mapper),
+                MongoCursor::close);
+    }
+
+    // Streams the JSON documents as chunks of a single JSON array: the opening bracket,
+    // one chunk for each document (prefixed by the separator except the first one)
+    // and the closing bracket.
+    public static Flux<String> asJsonArray(Flux<String> jsonDocuments) {
+        Flux<String> jsonArrayItems = jsonDocuments
+                .index((index, json) -> index == 0 ? json : JSON_ARRAY_SEPARATOR + json);
+        return Flux.concat(Flux.just(JSON_ARRAY_START), jsonArrayItems, Flux.just(JSON_ARRAY_END));
+    }
+}
@@ -4,10 +4,22 @@ import com.reedelk.mongodb.internal.exception.QueryException;
 import com.reedelk.runtime.api.converter.ConverterService;
 import com.reedelk.runtime.api.exception.PlatformException;
 import com.reedelk.runtime.api.message.content.Pair;
-import org.bson.Document;
+import org.bson.*;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.json.JsonReader;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.reedelk.mongodb.internal.commons.Messages.Document.MAP_KEYS_NOT_STRING;
@@ -15,19 +27,25 @@ import static com.reedelk.mongodb.internal.commons.Messages.Document.PAIR_LEFT_N
 
 public class DocumentUtils {
 
+    private static final String LIST_PROPERTY = "list";
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
     private DocumentUtils() {
     }
 
     @SuppressWarnings("unchecked")
     public static Document from(ConverterService converterService, Object documentObject, Supplier<? extends PlatformException> exception) {
 
-        // Could be a byte array containing the JSON sent with a post to a REST Listener.
-        if (documentObject instanceof byte[] || documentObject instanceof Byte[]) {
+        // Could be a byte array containing the JSON sent with a post to a REST Listener:
+        // it is parsed without converting it to an intermediate String first.
+        if (documentObject instanceof byte[]) {
+            return parse((byte[]) documentObject).decode(DOCUMENT_CODEC);
+
+        } else if (documentObject instanceof Byte[]) {
             String converted = converterService.convert(documentObject, String.class);
             return Document.parse(converted);
-        }
-        // If documentObject instanceof byte[] -> converter.convert(to string)?
-        if (documentObject instanceof String) {
+
+        } else if (documentObject instanceof String) {
             return Document.parse((String) documentObject);
 
         } else if (documentObject instanceof Map) {
@@ -45,6 +63,72 @@ public class DocumentUtils {
         }
     }
 
+    // Same as from, but a byte array containing JSON is parsed directly into BSON.
+    public static Bson toBson(ConverterService converterService, Object documentObject, Supplier<? extends PlatformException> exception) {
+        return documentObject instanceof byte[] ?
+                parse((byte[]) documentObject) :
+                from(converterService, documentObject, exception);
+    }
+
+    // True if the object is a list of documents or a JSON array, e.g. an update pipeline.
+    public static boolean isList(Object listObject) {
+        return listObject instanceof List ||
+                (listObject instanceof String && ((String) listObject).trim().startsWith("["));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Bson> listFrom(ConverterService converterService,
+                                      Object listObject,
+                                      Function<Object, Supplier<? extends PlatformException>> unsupported) {
+        Object items = listObject;
+        if (listObject instanceof String) {
+            // A JSON array can only be parsed as the value of a document field.
+            items = Document.parse("{ \"" + LIST_PROPERTY + "\": " + listObject + " }").get(LIST_PROPERTY);
+        }
+        if (!(items instanceof List)) throw unsupported.apply(items).get();
+
+        List<Bson> documents = new ArrayList<>();
+        for (Object item : (List<Object>) items) {
+            documents.add(toBson(converterService, item, unsupported.apply(item)));
+        }
+        return documents;
+    }
+
+    // Parses UTF-8 encoded JSON bytes directly into BSON: the bytes are decoded while they are
+    // being parsed and written into the BSON buffer, without creating an intermediate String or Document.
+    public static RawBsonDocument parse(byte[] json) {
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+        return pipe(new JsonReader(reader));
+    }
+
+    // Copies the document at the current position of the reader into a raw BSON document.
+    public static RawBsonDocument pipe(BsonReader reader) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            writer.pipe(reader);
+        }
+        return new RawBsonDocument(buffer.getInternalBuffer(), 0, buffer.getPosition());
+    }
+
+    // A new Object ID is appended to the document if it does not have an _id,
+    // as the Document codec would do. The fields are copied without decoding them.
+    public static RawBsonDocument withId(RawBsonDocument document) {
+        if (document.containsKey(ObjectIdUtils.OBJECT_ID_PROPERTY)) return document;
+        BasicOutputBuffer buffer = new BasicOutputBuffer(document.getByteBuffer().remaining() + 32);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+             BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            writer.pipe(reader, Collections.singletonList(new BsonElement(ObjectIdUtils.OBJECT_ID_PROPERTY, new BsonObjectId())));
+        }
+        return new RawBsonDocument(buffer.getInternalBuffer(), 0, buffer.getPosition());
+    }
+
+    // The Object ID is replaced with its hex representation and the document is wrapped,
+    // so that it uses the to string of java.Map instead of Document.
+    public static Map<String, Object> toMap(Document document) {
+        ObjectIdUtils.replace(document);
+        return new HashMap<>(document);
+    }
+
     private static void checkLeftIsStringTypeOrThrow(Pair<Serializable,Serializable> pair) {
         if (!(pair.left() instanceof String)) {
             String error = PAIR_LEFT_NOT_STRING.format(Utils.classNameOrNull(pair.left()));
@@ -0,0 +1,143 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reedelk.mongodb.internal.exception.InsertException;
+import org.bson.RawBsonDocument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_BATCHER_DISPOSED;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_BATCH_DOCUMENT_ERROR;
+import static com.reedelk.mongodb.internal.commons.Messages.Insert.INSERT_BATCH_WRITE_CONCERN_ERROR;
+import static java.util.stream.Collectors.toList;
+
+// Collects the documents inserted by concurrent flow executions and writes them with a single
+// unordered insertMany when the batch reaches the maximum number of documents or bytes, or when
+// the oldest document in the batch has been waiting for the maximum wait time. The future returned
+// for each document completes when its batch has been written: it fails only if that document failed.
+public class InsertBatcher {
+
+    private final MongoCollection<RawBsonDocument> collection;
+    private final int maxDocuments;
+    private final long maxBytes;
+    private final long maxWaitMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private List<PendingDocument> batch = new ArrayList<>();
+    private long batchBytes;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean disposed;
+
+    public InsertBatcher(MongoCollection<RawBsonDocument> collection, int maxDocuments, long maxBytes, long maxWaitMillis) {
+        this.collection = collection;
+        this.maxDocuments = maxDocuments;
+        this.maxBytes = maxBytes;
+        this.maxWaitMillis = maxWaitMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mongodb-insert-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Void> submit(RawBsonDocument document) {
+        PendingDocument pending = new PendingDocument(document);
+        List<PendingDocument> full = null;
+        synchronized (this) {
+            if (disposed) {
+                pending.result.completeExceptionally(new InsertException(INSERT_BATCHER_DISPOSED.format()));
+                return pending.result;
+            }
+            batch.add(pending);
+            batchBytes += document.getByteBuffer().remaining();
+            if (batch.size() >= maxDocuments || batchBytes >= maxBytes) {
+                full = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        // A full batch is written by the thread which filled it, so that
+        // producers faster than the database are slowed down.
+        if (full != null) write(full);
+        return pending.result;
+    }
+
+    public void flush() {
+        List<PendingDocument> toWrite;
+        synchronized (this) {
+            toWrite = drain();
+        }
+        write(toWrite);
+    }
+
+    // The documents still waiting are written before the scheduler is stopped,
+    // the documents submitted after dispose are rejected.
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    private List<PendingDocument> drain() {
+        List<PendingDocument> drained = batch;
+        batch = new ArrayList<>();
+        batchBytes = 0;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return drained;
+    }
+
+    private void write(List<PendingDocument> toWrite) {
+        if (toWrite.isEmpty()) return;
+
+        List<RawBsonDocument> documents = toWrite.stream()
+                .map(pending -> pending.document)
+                .collect(toList());
+        try {
+            collection.insertMany(documents, new InsertManyOptions().ordered(false));
+            toWrite.forEach(pending -> pending.result.complete(null));
+
+        } catch (MongoBulkWriteException exception) {
+            // Unordered: all the documents without an error have been inserted, but when there is
+            // a write concern error they have not been acknowledged with the required write concern.
+            BulkWriteError[] errors = new BulkWriteError[toWrite.size()];
+            exception.getWriteErrors().forEach(error -> errors[error.getIndex()] = error);
+            WriteConcernError writeConcernError = exception.getWriteConcernError();
+            for (int i = 0; i < errors.length; i++) {
+                CompletableFuture<Void> result = toWrite.get(i).result;
+                if (errors[i] == null && writeConcernError == null) {
+                    result.complete(null);
+                } else if (errors[i] == null) {
+                    String error = INSERT_BATCH_WRITE_CONCERN_ERROR.format(writeConcernError.getCode(), writeConcernError.getMessage());
+                    result.completeExceptionally(new InsertException(error));
+                } else {
+                    String error = INSERT_BATCH_DOCUMENT_ERROR.format(errors[i].getCode(), errors[i].getMessage());
+                    result.completeExceptionally(new InsertException(error));
+                }
+            }
+
+        } catch (RuntimeException exception) {
+            toWrite.forEach(pending -> pending.result.completeExceptionally(exception));
+        }
+    }
+
+    private static class PendingDocument {
+
+        private final RawBsonDocument document;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingDocument(RawBsonDocument document) {
+            this.document = document;
+        }
+    }
+}
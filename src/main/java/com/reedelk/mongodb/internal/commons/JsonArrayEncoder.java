@@ -0,0 +1,74 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.DocumentException;
+import org.bson.BsonBinaryReader;
+import org.bson.RawBsonDocument;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Document.JSON_ENCODE_ERROR;
+
+// Encodes raw BSON documents as JSON by piping the BSON bytes straight into the
+// JSON writer: documents are never decoded into an intermediate Document, Map or String.
+public class JsonArrayEncoder {
+
+    // The strict mode is the mode of Document.toJson(), which was used for the JSON output before:
+    // e.g. longs are written as { "$numberLong": "5" } and dates as { "$date": 1590000000000 }.
+    @SuppressWarnings("deprecation")
+    private static final JsonWriterSettings SETTINGS =
+            JsonWriterSettings.builder().outputMode(JsonMode.STRICT).build();
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    // Shared with the streamed JSON output, so that a streamed and a
+    // non streamed find return the same JSON array for the same documents.
+    static final String JSON_ARRAY_START = "[";
+    static final String JSON_ARRAY_END = "]";
+    static final String JSON_ARRAY_SEPARATOR = ", ";
+
+    private JsonArrayEncoder() {
+    }
+
+    public static String encode(Iterable<RawBsonDocument> documents) {
+        StringWriter output = new StringWriter(INITIAL_BUFFER_SIZE);
+        encode(documents, output);
+        return output.toString();
+    }
+
+    public static String encode(RawBsonDocument document) {
+        StringWriter output = new StringWriter();
+        pipe(document, output);
+        return output.toString();
+    }
+
+    // Writes the given documents as a single JSON array into the given writer.
+    public static void encode(Iterable<RawBsonDocument> documents, Writer output) {
+        try {
+            output.write(JSON_ARRAY_START);
+            boolean first = true;
+            for (RawBsonDocument document : documents) {
+                if (!first) output.write(JSON_ARRAY_SEPARATOR);
+                pipe(document, output);
+                first = false;
+            }
+            output.write(JSON_ARRAY_END);
+            output.flush();
+        } catch (IOException exception) {
+            String error = JSON_ENCODE_ERROR.format(exception.getMessage());
+            throw new DocumentException(error, exception);
+        }
+    }
+
+    private static void pipe(RawBsonDocument document, Writer output) {
+        // A JSON writer can only write a single top level document,
+        // therefore a new one (which is cheap) is created for each document.
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            new JsonWriter(output, SETTINGS).pipe(reader);
+        }
+    }
+}
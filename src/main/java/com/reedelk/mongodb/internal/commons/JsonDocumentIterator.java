@@ -0,0 +1,54 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.DocumentException;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.json.JsonReader;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Document.JSON_STREAM_NOT_DOCUMENT;
+
+// Incrementally parses the JSON documents from the given reader: either a top level JSON array
+// of documents or a sequence of documents separated by new lines (NDJSON) or white spaces.
+// Only the document being parsed is held in memory: each document is written directly as raw BSON.
+public class JsonDocumentIterator implements Iterator<RawBsonDocument> {
+
+    private final JsonReader reader;
+    private final boolean array;
+    private BsonType nextType;
+
+    public JsonDocumentIterator(Reader json) {
+        this.reader = new JsonReader(json);
+        this.nextType = reader.readBsonType();
+        this.array = nextType == BsonType.ARRAY;
+        if (array) {
+            reader.readStartArray();
+            nextType = reader.readBsonType();
+        }
+    }
+
+    // True if the documents are the elements of a top level JSON array.
+    public boolean isArray() {
+        return array;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextType == BsonType.END_OF_DOCUMENT) return false;
+        if (nextType != BsonType.DOCUMENT) {
+            throw new DocumentException(JSON_STREAM_NOT_DOCUMENT.format(nextType));
+        }
+        return true;
+    }
+
+    @Override
+    public RawBsonDocument next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        RawBsonDocument document = DocumentUtils.pipe(reader);
+        nextType = reader.readBsonType();
+        return document;
+    }
+}
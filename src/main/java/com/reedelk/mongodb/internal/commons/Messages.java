@@ -11,7 +11,18 @@ public class Messages {
 
         INSERT_DOCUMENT_EMPTY("The document to insert was null. " +
                 "Null documents cannot be inserted into MongoDB, " +
-                "did you mean to insert an empty document ({}) ? (DynamicValue=[%s]).");
+                "did you mean to insert an empty document ({}) ? (DynamicValue=[%s])."),
+        INSERT_BATCH_DOCUMENT_ERROR("The document could not be inserted by the batch insert (code=[%d], error=[%s])."),
+        INSERT_BATCH_WRITE_CONCERN_ERROR("The document was inserted by the batch insert, but the write concern " +
+                "could not be satisfied (code=[%d], error=[%s])."),
+        INSERT_BATCH_TIMEOUT("The batch insert of the document did not complete within %d ms, " +
+                "the document might still be inserted."),
+        INSERT_BATCH_INTERRUPTED("Interrupted while waiting for the batch insert of the document."),
+        INSERT_BATCHER_DISPOSED("The batch insert has been disposed, the document could not be inserted."),
+        INSERT_MANY_FAILED("%d of %d documents could not be inserted (first failed document index=[%d], code=[%d], error=[%s])."),
+        INSERT_ORDERED_FAILED("The ordered insert stopped at the document with index=[%d], " +
+                "the %d documents before it were inserted (code=[%d], error=[%s])."),
+        INSERT_STREAM_ERROR("Could not read the documents to insert from the stream (cause=[%s]).");
 
         private String message;
 
@@ -42,6 +53,28 @@ public class Messages {
         }
     }
 
+    public enum FindPage implements FormattedMessage {
+
+        FIND_PAGE_QUERY_NULL("The Find Page query was null. " +
+                "I cannot execute find page operation with a null query (DynamicValue=[%s])."),
+        FIND_PAGE_SIZE_NOT_VALID("The page size must be greater than zero (found=[%s])."),
+        FIND_PAGE_CONTINUATION_TOKEN_NOT_VALID("The continuation token=[%s] is not valid. " +
+                "The continuation token must be the one returned in the attributes of the previous page."),
+        FIND_PAGE_SORT_KEY_MISSING("The sort key=[%s] is missing in the document=[%s]. " +
+                "The sort key must be present in all the paginated documents.");
+
+        private String message;
+
+        FindPage(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
     public enum Update implements FormattedMessage {
 
         UPDATE_QUERY_NULL("The Update query was null. " +
@@ -80,6 +113,86 @@ public class Messages {
         }
     }
 
+    public enum BulkWrite implements FormattedMessage {
+
+        BULK_WRITE_OPERATIONS_NULL("The bulk write operations were null. " +
+                "I cannot execute Bulk Write operation without operations (DynamicValue=[%s])."),
+        BULK_WRITE_OPERATIONS_NOT_SUPPORTED("Bulk write operations with type=[%s] are not supported, " +
+                "the operations must be a list or a JSON array."),
+        BULK_WRITE_OPERATION_NOT_VALID("The bulk write operation at index=[%d] is not valid: it must be a document " +
+                "with one of insertOne, updateOne, updateMany, replaceOne, deleteOne, deleteMany as only key (found=[%s])."),
+        BULK_WRITE_OPERATION_FIELD_MISSING("The %s bulk write operation at index=[%d] must have a [%s] document."),
+        BULK_WRITE_FAILED("%d of %d bulk write operations failed (%s)."),
+        BULK_WRITE_ERROR("first failed operation index=[%d], code=[%d], error=[%s]"),
+        BULK_WRITE_CONCERN_ERROR("write concern error code=[%d], error=[%s]");
+
+        private String message;
+
+        BulkWrite(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum FindOneAndUpdate implements FormattedMessage {
+
+        FIND_ONE_AND_UPDATE_QUERY_NULL("The Find One And Update query was null. " +
+                "I cannot execute Find One And Update operation with a null query (DynamicValue=[%s])."),
+        FIND_ONE_AND_UPDATE_DOCUMENT_EMPTY("The update document was [null]. " +
+                "Null documents cannot be used by Find One And Update operation (DynamicValue=[%s]).");
+
+        private String message;
+
+        FindOneAndUpdate(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum FindOneAndReplace implements FormattedMessage {
+
+        FIND_ONE_AND_REPLACE_QUERY_NULL("The Find One And Replace query was null. " +
+                "I cannot execute Find One And Replace operation with a null query (DynamicValue=[%s])."),
+        FIND_ONE_AND_REPLACE_DOCUMENT_EMPTY("The replacement document was [null]. " +
+                "Null documents cannot be used by Find One And Replace operation (DynamicValue=[%s]).");
+
+        private String message;
+
+        FindOneAndReplace(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum FindOneAndDelete implements FormattedMessage {
+
+        FIND_ONE_AND_DELETE_QUERY_NULL("The Find One And Delete query was null. " +
+                "I cannot execute Find One And Delete operation with a null query (DynamicValue=[%s]).");
+
+        private String message;
+
+        FindOneAndDelete(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
     public enum Count implements FormattedMessage {
 
         COUNT_QUERY_NULL("The Count query was null. " +
@@ -104,7 +217,12 @@ public class Messages {
         PAIR_LEFT_NOT_STRING("Could not create document from query with type Pair, " +
                 "the Pair 'left' element must be a string (found=[%s])."),
         DOCUMENT_NOT_SUPPORTED("Document with type=[%s] is not a supported. Did you mean to update with an empty document ({}) ?"),
-        QUERY_TYPE_NOT_SUPPORTED("Query with type=[%s] is not a supported.");
+        QUERY_TYPE_NOT_SUPPORTED("Query with type=[%s] is not a supported."),
+        QUERY_PARAMETER_NOT_FOUND("Could not bind the query placeholder ':%s', " +
+                "the value was not found in the message payload, attributes or flow context."),
+        JSON_ENCODE_ERROR("Could not encode documents to JSON (cause=[%s])."),
+        JSON_STREAM_NOT_DOCUMENT("The streamed JSON must contain documents, either in a top level JSON array " +
+                "or one document per line (found=[%s]).");
 
         private final String message;
 
@@ -117,4 +235,39 @@ public class Messages {
             return message;
         }
     }
+
+    public enum Connection implements FormattedMessage {
+
+        CONNECTION_WARM_UP_FAILED("The MongoDB connection could not be warmed up (cause=[%s])."),
+        CONNECTION_WARM_UP_TIMEOUT("The MongoDB connection could not be warmed up within %d ms " +
+                "(open connections by server=[%s], min pool size=[%d]).");
+
+        private final String message;
+
+        Connection(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum Collection implements FormattedMessage {
+
+        DATABASE_NAME_EMPTY("The MongoDB database name was empty (DynamicValue=[%s])."),
+        COLLECTION_NAME_EMPTY("The MongoDB collection name was empty (DynamicValue=[%s]).");
+
+        private final String message;
+
+        Collection(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
 }
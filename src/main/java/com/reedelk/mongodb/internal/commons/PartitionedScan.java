@@ -0,0 +1,81 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.reedelk.mongodb.internal.commons.ObjectIdUtils.OBJECT_ID_PROPERTY;
+import static java.util.Arrays.asList;
+
+public class PartitionedScan {
+
+    // Number of _id values sampled for each partition: the more samples,
+    // the more evenly sized the partitions are.
+    private static final int SAMPLES_PER_PARTITION = 20;
+
+    private PartitionedScan() {
+    }
+
+    // Splits the collection into at most the given number of disjoint _id ranges covering
+    // all the documents. The range boundaries are the _id values found at evenly spaced
+    // positions in a sorted random sample ($sample) of the collection _id values.
+    // If the collection is empty or the sampled _id values have different types, a single
+    // range is returned: range predicates on _id only match values of the same type.
+    public static List<Bson> partitions(MongoCollection<Document> collection, int partitions) {
+        if (partitions <= 1) return Collections.singletonList(new Document());
+
+        List<BsonValue> samples = new ArrayList<>();
+        collection.aggregate(asList(
+                Aggregates.sample(partitions * SAMPLES_PER_PARTITION),
+                Aggregates.project(Projections.include(OBJECT_ID_PROPERTY)),
+                Aggregates.sort(Sorts.ascending(OBJECT_ID_PROPERTY))), RawBsonDocument.class)
+                .forEach((Consumer<RawBsonDocument>) sample -> samples.add(sample.get(OBJECT_ID_PROPERTY)));
+
+        List<BsonValue> boundaries = new ArrayList<>();
+        for (int i = 1; i < partitions && !samples.isEmpty(); i++) {
+            BsonValue boundary = samples.get(i * samples.size() / partitions);
+            if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                boundaries.add(boundary);
+            }
+        }
+
+        boolean sameType = samples.stream()
+                .allMatch(sample -> sample.getBsonType() == samples.get(0).getBsonType());
+        if (boundaries.isEmpty() || !sameType) return Collections.singletonList(new Document());
+
+        // The first range is the negation of all the others, so that documents
+        // having an _id of a type different from the sampled ones are not missed.
+        List<Bson> ranges = new ArrayList<>();
+        ranges.add(Filters.not(Filters.gte(OBJECT_ID_PROPERTY, boundaries.get(0))));
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            ranges.add(Filters.and(
+                    Filters.gte(OBJECT_ID_PROPERTY, boundaries.get(i)),
+                    Filters.lt(OBJECT_ID_PROPERTY, boundaries.get(i + 1))));
+        }
+        ranges.add(Filters.gte(OBJECT_ID_PROPERTY, boundaries.get(boundaries.size() - 1)));
+        return ranges;
+    }
+
+    // Merges the documents read concurrently from each partition. If ordered, the documents are emitted
+    // in partition order: the documents read ahead from the following partitions are buffered (up to
+    // the given prefetch each) until all the documents of the previous partitions have been emitted.
+    // Otherwise the documents are emitted as soon as they are read from any partition.
+    public static <T> Flux<T> merge(List<? extends Publisher<T>> partitions, boolean ordered, int prefetch) {
+        return ordered ?
+                Flux.mergeSequential(partitions, partitions.size(), prefetch) :
+                Flux.merge(partitions);
+    }
+}
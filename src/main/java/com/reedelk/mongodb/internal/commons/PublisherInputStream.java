@@ -0,0 +1,61 @@
+package com.reedelk.mongodb.internal.commons;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// An input stream reading the chunks of a streamed content as they are published.
+// Only a few chunks are requested ahead, so that the content is never fully buffered.
+// Chunks can be byte arrays or strings, which are encoded using UTF-8.
+public class PublisherInputStream extends InputStream {
+
+    private static final int PREFETCH_CHUNKS = 4;
+
+    private final Stream<?> stream;
+    private final Iterator<?> chunks;
+    private byte[] current = new byte[0];
+    private int position;
+
+    public PublisherInputStream(Publisher<?> publisher) {
+        this.stream = Flux.from(publisher).toStream(PREFETCH_CHUNKS);
+        this.chunks = stream.iterator();
+    }
+
+    // Cancels the subscription if the content has not been completely read.
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    @Override
+    public int read() {
+        if (!nextChunkIfNeeded()) return -1;
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) return 0;
+        if (!nextChunkIfNeeded()) return -1;
+        int read = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, read);
+        position += read;
+        return read;
+    }
+
+    private boolean nextChunkIfNeeded() {
+        while (position >= current.length) {
+            if (!chunks.hasNext()) return false;
+            Object chunk = chunks.next();
+            current = chunk instanceof byte[] ?
+                    (byte[]) chunk :
+                    String.valueOf(chunk).getBytes(StandardCharsets.UTF_8);
+            position = 0;
+        }
+        return true;
+    }
+}
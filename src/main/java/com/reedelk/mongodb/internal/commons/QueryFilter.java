@@ -0,0 +1,95 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.exception.PlatformException;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.function.Function;
+
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+// The query filter of a component, compiled at initialize time. A filter which is not a script is parsed once,
+// a template (see QueryTemplate) only has its placeholders bound for each message, any other script is evaluated
+// for each message. The resolved filter keeps the value to be reported in the attributes of the output message.
+public class QueryFilter {
+
+    private final DynamicObject query;
+    private final ConverterService converterService;
+    private final Function<Object, ? extends PlatformException> nullQuery;
+    private final QueryTemplate queryTemplate;
+    private final Bson staticQuery;
+
+    private QueryFilter(DynamicObject query,
+                        ConverterService converterService,
+                        Function<Object, ? extends PlatformException> nullQuery) {
+        this.query = query;
+        this.converterService = converterService;
+        this.nullQuery = nullQuery;
+        this.queryTemplate = QueryTemplate.compile(query);
+        this.staticQuery = queryTemplate == null ?
+                StaticDocument.compile(converterService, query, Unsupported::queryType) :
+                null;
+    }
+
+    // The null query function creates the exception thrown when the script evaluates to null,
+    // given the script of the query filter.
+    public static QueryFilter compile(ConverterService converterService,
+                                      DynamicObject query,
+                                      Function<Object, ? extends PlatformException> nullQuery) {
+        return new QueryFilter(query, converterService, nullQuery);
+    }
+
+    // Returns null if the query filter is empty.
+    public Resolved resolve(ScriptEngineService scriptService, FlowContext flowContext, Message message) {
+        if (staticQuery != null) {
+            return new Resolved(staticQuery, query.value());
+
+        } else if (queryTemplate != null) {
+            Document boundQuery = queryTemplate.bind(flowContext, message);
+            return new Resolved(boundQuery, boundQuery.toJson());
+
+        } else if (isNullOrBlank(query)) {
+            return null;
+
+        } else {
+            // The filter could be a JSON string, a Map or a Pair type.
+            // If the filter is not one of these objects we throw an exception.
+            Object evaluatedQuery = scriptService.evaluate(query, flowContext, message)
+                    .orElseThrow(() -> nullQuery.apply(query.value()));
+            Bson bson = DocumentUtils.toBson(converterService, evaluatedQuery, Unsupported.queryType(evaluatedQuery));
+            return new Resolved(bson, evaluatedQuery);
+        }
+    }
+
+    // Same as resolve, but an empty query filter is not allowed.
+    public Resolved resolveRequired(ScriptEngineService scriptService, FlowContext flowContext, Message message) {
+        Resolved resolved = resolve(scriptService, flowContext, message);
+        if (resolved == null) throw nullQuery.apply(query == null ? null : query.value());
+        return resolved;
+    }
+
+    public static class Resolved {
+
+        private final Bson query;
+        private final Object value;
+
+        private Resolved(Bson query, Object value) {
+            this.query = query;
+            this.value = value;
+        }
+
+        public Bson getQuery() {
+            return query;
+        }
+
+        // The query filter as given or evaluated, e.g. a JSON string or a Map.
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.QueryException;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Document.QUERY_PARAMETER_NOT_FOUND;
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+// A JSON query with named placeholders in place of values, e.g. { customerId: :id, status: { $in: [ :payload.status ] } }.
+// The JSON is parsed only once, and for each message only the placeholders are resolved without using the script engine:
+// :payload, :payload.field, :attributes.name, :context.name or just :name, which is a shorthand for :attributes.name.
+// Nested fields are resolved as long as the values along the path are maps, a missing value fails the binding.
+public class QueryTemplate {
+
+    private static final String PARAMETER_KEY = "$__parameter";
+
+    private static final String PAYLOAD = "payload";
+    private static final String ATTRIBUTES = "attributes";
+    private static final String CONTEXT = "context";
+
+    private final Document template;
+    private final List<String[]> parameters;
+
+    private QueryTemplate(Document template, List<String[]> parameters) {
+        this.template = template;
+        this.parameters = parameters;
+    }
+
+    // Returns null if the dynamic value is empty, a script or if it does not contain any placeholder.
+    public static QueryTemplate compile(DynamicObject dynamicValue) {
+        if (isNullOrBlank(dynamicValue) || dynamicValue.isScript()) return null;
+        if (!(dynamicValue.value() instanceof String)) return null;
+
+        String json = (String) dynamicValue.value();
+        List<String[]> parameters = new ArrayList<>();
+        StringBuilder parsable = new StringBuilder(json.length());
+
+        // Each placeholder is replaced with a marker document holding the index of the placeholder.
+        // A placeholder can only be in a value position: after a colon, an opening bracket or a comma.
+        // Strings and regular expression literals (e.g. /^a:b/i) are copied as they are.
+        char quote = 0;
+        char previous = 0;
+        for (int i = 0; i < json.length(); i++) {
+            char current = json.charAt(i);
+            if (quote != 0) {
+                parsable.append(current);
+                if (current == '\\' && i + 1 < json.length()) {
+                    parsable.append(json.charAt(++i));
+                } else if (current == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+
+            if (current == ':' && isValuePosition(previous) &&
+                    i + 1 < json.length() && Character.isJavaIdentifierStart(json.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < json.length() && (Character.isJavaIdentifierPart(json.charAt(end)) || json.charAt(end) == '.')) {
+                    end++;
+                }
+                parameters.add(json.substring(i + 1, end).split("\\."));
+                parsable.append("{ \"").append(PARAMETER_KEY).append("\": ").append(parameters.size() - 1).append(" }");
+                previous = '}';
+                i = end - 1;
+                continue;
+            }
+
+            if (current == '"' || current == '\'') quote = current;
+            if (current == '/' && isValuePosition(previous)) quote = current;
+            if (!Character.isWhitespace(current)) previous = current;
+            parsable.append(current);
+        }
+
+        if (parameters.isEmpty()) return null;
+        return new QueryTemplate(Document.parse(parsable.toString()), parameters);
+    }
+
+    public Document bind(FlowContext flowContext, Message message) {
+        Object[] values = new Object[parameters.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = resolve(parameters.get(i), flowContext, message);
+        }
+        return (Document) bind(template, values);
+    }
+
+    private static Object bind(Object node, Object[] values) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (document.size() == 1 && document.containsKey(PARAMETER_KEY)) {
+                return values[document.getInteger(PARAMETER_KEY)];
+            }
+            Document bound = new Document();
+            document.forEach((key, value) -> bound.put(key, bind(value, values)));
+            return bound;
+
+        } else if (node instanceof List) {
+            List<?> list = (List<?>) node;
+            List<Object> bound = new ArrayList<>(list.size());
+            list.forEach(item -> bound.add(bind(item, values)));
+            return bound;
+
+        } else {
+            return node;
+        }
+    }
+
+    // A placeholder bound to a missing value fails, since binding it to null would silently change
+    // the query semantics (e.g. { status: null } matches all the documents without a status field).
+    // A value explicitly set to null in the payload, attributes or context is bound to null instead.
+    private static Object resolve(String[] parameter, FlowContext flowContext, Message message) {
+        Object current;
+        int start = 1;
+        switch (parameter[0]) {
+            case PAYLOAD:
+                current = message.payload();
+                break;
+            case CONTEXT:
+                current = flowContext;
+                break;
+            case ATTRIBUTES:
+                current = message.attributes();
+                break;
+            default:
+                current = message.attributes();
+                start = 0;
+        }
+        for (int i = start; i < parameter.length; i++) {
+            if (!(current instanceof Map)) throw notFound(parameter);
+            Map<?, ?> map = (Map<?, ?>) current;
+            current = map.get(parameter[i]);
+            if (current == null && !map.containsKey(parameter[i])) throw notFound(parameter);
+        }
+        return current;
+    }
+
+    private static boolean isValuePosition(char previous) {
+        return previous == ':' || previous == '[' || previous == ',';
+    }
+
+    private static QueryException notFound(String[] parameter) {
+        String error = QUERY_PARAMETER_NOT_FOUND.format(String.join(".", parameter));
+        return new QueryException(error);
+    }
+}
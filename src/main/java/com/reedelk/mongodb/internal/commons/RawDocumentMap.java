@@ -0,0 +1,149 @@
+package com.reedelk.mongodb.internal.commons;
+
+import org.bson.*;
+import org.bson.types.*;
+
+import java.io.Serializable;
+import java.util.*;
+
+import static com.reedelk.mongodb.internal.commons.ObjectIdUtils.OBJECT_ID_PROPERTY;
+import static com.reedelk.runtime.api.commons.ImmutableMap.of;
+
+// A read only Map view over a raw BSON document. The fields are decoded only when they
+// are accessed: a lookup by key skips over the bytes of all the other fields without decoding them.
+// Embedded documents are themselves returned as lazy views. The Object ID of the top level
+// document is replaced on the fly with its extended JSON representation, as ObjectIdUtils does.
+public class RawDocumentMap extends AbstractMap<String, Object> implements Serializable {
+
+    private final RawBsonDocument document;
+    private final boolean topLevel;
+
+    public RawDocumentMap(RawBsonDocument document) {
+        this(document, true);
+    }
+
+    private RawDocumentMap(RawBsonDocument document, boolean topLevel) {
+        this.document = document;
+        this.topLevel = topLevel;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) return null;
+        BsonValue value = document.get(key);
+        return value == null ? null : decode((String) key, value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && document.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return document.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return document.isEmpty();
+    }
+
+    // Iterating all the entries requires all the fields to be decoded.
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Entry<String, BsonValue>> entries = document.entrySet().iterator();
+                return new Iterator<Entry<String, Object>>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Entry<String, BsonValue> entry = entries.next();
+                        String key = entry.getKey();
+                        return new SimpleImmutableEntry<>(key, decode(key, entry.getValue()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return RawDocumentMap.this.size();
+            }
+        };
+    }
+
+    private Object decode(String key, BsonValue value) {
+        if (topLevel && OBJECT_ID_PROPERTY.equals(key) && value.isObjectId()) {
+            return of("$oid", value.asObjectId().getValue().toHexString());
+        }
+        return toJava(value);
+    }
+
+    // Maps BSON values to the same Java types used by the default Document codec.
+    public static Object toJava(BsonValue value) {
+        switch (value.getBsonType()) {
+            case DOUBLE:
+                return value.asDouble().getValue();
+            case STRING:
+                return value.asString().getValue();
+            case DOCUMENT:
+                return value instanceof RawBsonDocument ?
+                        new RawDocumentMap((RawBsonDocument) value, false) :
+                        toMap(value.asDocument());
+            case ARRAY:
+                return toList(value.asArray());
+            case BINARY:
+                BsonBinary binary = value.asBinary();
+                return new Binary(binary.getType(), binary.getData());
+            case OBJECT_ID:
+                return value.asObjectId().getValue();
+            case BOOLEAN:
+                return value.asBoolean().getValue();
+            case DATE_TIME:
+                return new Date(value.asDateTime().getValue());
+            case NULL:
+            case UNDEFINED:
+                return null;
+            case JAVASCRIPT:
+                return new Code(value.asJavaScript().getCode());
+            case SYMBOL:
+                return new Symbol(value.asSymbol().getSymbol());
+            case INT32:
+                return value.asInt32().getValue();
+            case INT64:
+                return value.asInt64().getValue();
+            case DECIMAL128:
+                return value.asDecimal128().getValue();
+            case MIN_KEY:
+                return new MinKey();
+            case MAX_KEY:
+                return new MaxKey();
+            default:
+                // Regular expressions, timestamps, DB pointers and
+                // JavaScript with scope are returned as BSON values.
+                return value;
+        }
+    }
+
+    private static List<Object> toList(BsonArray array) {
+        List<Object> list = new ArrayList<>(array.size());
+        for (BsonValue item : array) {
+            list.add(toJava(item));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> toMap(BsonDocument document) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        document.forEach((key, value) -> map.put(key, toJava(value)));
+        return map;
+    }
+}
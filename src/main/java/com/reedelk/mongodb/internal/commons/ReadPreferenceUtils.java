@@ -0,0 +1,95 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import com.reedelk.mongodb.component.ReadConcernLevel;
+import com.reedelk.mongodb.component.ReadPreferenceConfiguration;
+import com.reedelk.mongodb.component.ReadPreferenceMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static com.reedelk.runtime.api.commons.StringUtils.isBlank;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class ReadPreferenceUtils {
+
+    private static final int MIN_MAX_STALENESS = 90;
+
+    private ReadPreferenceUtils() {
+    }
+
+    public static void validate(Class<?> component, ReadPreferenceConfiguration configuration) {
+        if (configuration == null) return;
+        boolean primary = configuration.getMode() == null || configuration.getMode() == ReadPreferenceMode.PRIMARY;
+        requireTrue(component, !primary || (isBlank(configuration.getTagSets()) && configuration.getMaxStaleness() == null),
+                "MongoDB read preference tag sets and max staleness can not be used with the primary mode");
+        requireTrue(component, configuration.getMaxStaleness() == null || configuration.getMaxStaleness() >= MIN_MAX_STALENESS,
+                "MongoDB read preference max staleness must be at least " + MIN_MAX_STALENESS + " seconds");
+        requireTrue(component, isValidTagSets(configuration.getTagSets()),
+                "MongoDB read preference tag sets must be name:value pairs separated by ',' and tag sets separated by ';'");
+    }
+
+    // The read preference of the connection is used if the mode is not set in the configuration of the component.
+    public static ReadPreference from(ReadPreference inherited, ReadPreferenceConfiguration configuration) {
+        if (configuration == null || configuration.getMode() == null) return inherited;
+        if (configuration.getMode() == ReadPreferenceMode.PRIMARY) return ReadPreference.primary();
+
+        String name = nameOf(configuration.getMode());
+        List<TagSet> tagSets = tagSetsFrom(configuration.getTagSets());
+        return configuration.getMaxStaleness() == null ?
+                ReadPreference.valueOf(name, tagSets) :
+                ReadPreference.valueOf(name, tagSets, configuration.getMaxStaleness(), SECONDS);
+    }
+
+    public static ReadConcern from(ReadConcern inherited, ReadConcernLevel level) {
+        if (level == null) return inherited;
+        return new ReadConcern(com.mongodb.ReadConcernLevel.fromString(level.name()));
+    }
+
+    // e.g. "dc:east,usage:reporting;dc:west;" -> [{dc:east, usage:reporting}, {dc:west}, {}]
+    static List<TagSet> tagSetsFrom(String tagSets) {
+        List<TagSet> result = new ArrayList<>();
+        if (isBlank(tagSets)) return result;
+        for (String tagSet : tagSets.split(";", -1)) {
+            List<Tag> tags = new ArrayList<>();
+            for (String tag : tagSet.split(",")) {
+                if (isBlank(tag)) continue;
+                String[] nameAndValue = tag.split(":", 2);
+                tags.add(new Tag(nameAndValue[0].trim(), nameAndValue[1].trim()));
+            }
+            result.add(new TagSet(tags));
+        }
+        return result;
+    }
+
+    private static boolean isValidTagSets(String tagSets) {
+        if (isBlank(tagSets)) return true;
+        for (String tagSet : tagSets.split(";", -1)) {
+            for (String tag : tagSet.split(",")) {
+                if (isBlank(tag)) continue;
+                String[] nameAndValue = tag.split(":", 2);
+                if (nameAndValue.length != 2 || isBlank(nameAndValue[0]) || isBlank(nameAndValue[1])) return false;
+            }
+        }
+        return true;
+    }
+
+    private static String nameOf(ReadPreferenceMode mode) {
+        switch (mode) {
+            case PRIMARY_PREFERRED:
+                return "primaryPreferred";
+            case SECONDARY:
+                return "secondary";
+            case SECONDARY_PREFERRED:
+                return "secondaryPreferred";
+            case NEAREST:
+                return "nearest";
+            default:
+                return "primary";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.exception.PlatformException;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.reedelk.runtime.api.commons.DynamicValueUtils.isNullOrBlank;
+
+public class StaticDocument {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private StaticDocument() {
+    }
+
+    // If the dynamic value is not a script (e.g. a constant JSON filter like { _id: 1 }), it is
+    // parsed once into an immutable BSON document which can be shared by all the messages.
+    // Returns null if the dynamic value is empty or if it is a script, which must be evaluated for each message.
+    public static RawBsonDocument compile(ConverterService converterService,
+                                          DynamicObject dynamicValue,
+                                          Function<Object, Supplier<? extends PlatformException>> unsupported) {
+        if (isNullOrBlank(dynamicValue) || dynamicValue.isScript()) return null;
+        Object value = dynamicValue.value();
+        Document document = DocumentUtils.from(converterService, value, unsupported.apply(value));
+        return new RawBsonDocument(document, DOCUMENT_CODEC);
+    }
+}
@@ -0,0 +1,37 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.WriteConcern;
+import com.reedelk.mongodb.component.WriteConcernConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.reedelk.runtime.api.commons.StringUtils.isBlank;
+
+public class WriteConcernUtils {
+
+    private WriteConcernUtils() {
+    }
+
+    // The options which are not set in the configuration of the component
+    // are inherited from the write concern of the connection.
+    public static WriteConcern from(WriteConcern inherited, WriteConcernConfiguration configuration) {
+        if (configuration == null) return inherited;
+        if (Utils.isTrue(configuration.getUnacknowledged())) return WriteConcern.UNACKNOWLEDGED;
+
+        WriteConcern writeConcern = inherited;
+        String w = configuration.getW();
+        if (!isBlank(w)) {
+            String trimmed = w.trim();
+            writeConcern = trimmed.chars().allMatch(Character::isDigit) ?
+                    writeConcern.withW(Integer.parseInt(trimmed)) :
+                    writeConcern.withW(trimmed);
+        }
+        if (configuration.getJournal() != null) {
+            writeConcern = writeConcern.withJournal(configuration.getJournal());
+        }
+        if (configuration.getWTimeout() != null) {
+            writeConcern = writeConcern.withWTimeout(configuration.getWTimeout(), TimeUnit.MILLISECONDS);
+        }
+        return writeConcern;
+    }
+}
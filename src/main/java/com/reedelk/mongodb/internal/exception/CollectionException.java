@@ -0,0 +1,10 @@
+package com.reedelk.mongodb.internal.exception;
+
+import com.reedelk.runtime.api.exception.PlatformException;
+
+public class CollectionException extends PlatformException {
+
+    public CollectionException(String message) {
+        super(message);
+    }
+}
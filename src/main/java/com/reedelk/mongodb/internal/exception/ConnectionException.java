@@ -0,0 +1,10 @@
+package com.reedelk.mongodb.internal.exception;
+
+import com.reedelk.runtime.api.exception.PlatformException;
+
+public class ConnectionException extends PlatformException {
+
+    public ConnectionException(String message) {
+        super(message);
+    }
+}
@@ -7,4 +7,8 @@ public class DocumentException extends PlatformException {
     public DocumentException(String message) {
         super(message);
     }
+
+    public DocumentException(String message, Throwable exception) {
+        super(message, exception);
+    }
 }
@@ -0,0 +1,10 @@
+package com.reedelk.mongodb.internal.exception;
+
+import com.reedelk.runtime.api.exception.PlatformException;
+
+public class FindPageException extends PlatformException {
+
+    public FindPageException(String message) {
+        super(message);
+    }
+}
@@ -2,9 +2,24 @@ package com.reedelk.mongodb.internal.exception;
 
 import com.reedelk.runtime.api.exception.PlatformException;
 
+import java.util.Collections;
+import java.util.List;
+
 public class InsertException extends PlatformException {
 
+    private final List<Object> insertedIds;
+
     public InsertException(String message) {
+        this(message, Collections.emptyList());
+    }
+
+    // The IDs of the documents which were inserted before the insert failed.
+    public InsertException(String message, List<Object> insertedIds) {
         super(message);
+        this.insertedIds = insertedIds;
+    }
+
+    public List<Object> getInsertedIds() {
+        return insertedIds;
     }
 }
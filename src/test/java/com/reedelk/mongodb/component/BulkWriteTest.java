@@ -0,0 +1,215 @@
+package com.reedelk.mongodb.component;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.exception.BulkWriteException;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class BulkWriteTest extends AbstractMongoDBTest {
+
+    private BulkWrite component = new BulkWrite();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        component.setConnection(connectionConfiguration);
+        component.setCollection(collectionName);
+        component.clientFactory = new ClientFactory();
+        component.scriptService = scriptService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        super.tearDown();
+        if (component != null) {
+            component.dispose();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExecuteMixedOperations() {
+        // Given
+        insertDocument("{_id: 1, name:'Olav', surname: 'Zipser', age: 55}");
+        insertDocument("{_id: 2, name:'Mark', surname: 'Anton', age: 32}");
+
+        List<String> operations = asList(
+                "{ insertOne: { document: { _id: 3, name: 'Anna', age: 23 } } }",
+                "{ updateOne: { filter: { _id: 1 }, document: { $set: { age: 56 } } } }",
+                "{ replaceOne: { filter: { _id: 4 }, document: { name: 'John', age: 41 }, upsert: true } }",
+                "{ deleteOne: { filter: { _id: 2 } } }");
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(operations).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Object> insertedIds = actual.payload();
+        assertThat(insertedIds).containsExactly(3);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("insertedCount", 1);
+        assertThat(attributes).containsEntry("matchedCount", 1);
+        assertThat(attributes).containsEntry("modifiedCount", 1);
+        assertThat(attributes).containsEntry("deletedCount", 1);
+        assertThat(attributes).containsEntry("acknowledge", true);
+
+        List<Map<String, Object>> upserts = (List<Map<String, Object>>) attributes.get("upserts");
+        assertThat(upserts).hasSize(1);
+        assertThat(upserts.get(0)).containsEntry("index", 2).containsEntry("id", 4);
+
+        assertExistDocumentWith("{ _id: 1, age: 56 }");
+        assertExistDocumentWith("{ _id: 3, name: 'Anna' }");
+        assertExistDocumentWith("{ _id: 4, name: 'John' }");
+        assertDocumentsCount(3);
+    }
+
+    @Test
+    void shouldExecuteOperationsFromJsonArray() {
+        // Given
+        String operations = "[ { insertOne: { document: { name: 'Anna' } } }, " +
+                "{ updateMany: { filter: { name: 'Anna' }, document: { $set: { age: 23 } } } } ]";
+        component.setOperations(DynamicObject.from(operations));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<String> insertedIds = actual.payload();
+        assertThat(insertedIds).hasSize(1);
+        assertExistDocumentWith("{ _id: { $oid: '" + insertedIds.get(0) + "' }, name: 'Anna', age: 23 }");
+    }
+
+    @Test
+    void shouldContinueAfterFailedOperationWhenUnordered() {
+        // Given
+        insertDocument("{_id: 1, name:'Olav'}");
+
+        List<String> operations = asList(
+                "{ insertOne: { document: { _id: 1, name: 'Duplicate' } } }",
+                "{ insertOne: { document: { _id: 2, name: 'Mark' } } }");
+        component.setOrdered(false);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(operations).build();
+
+        // When
+        BulkWriteException thrown = assertThrows(BulkWriteException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("1 of 2 bulk write operations failed (first failed operation index=[0], code=[11000]");
+        assertExistDocumentWith("{ _id: 2, name: 'Mark' }");
+    }
+
+    @Test
+    void shouldStopAtFailedOperationWhenOrdered() {
+        // Given
+        insertDocument("{_id: 1, name:'Olav'}");
+
+        List<String> operations = asList(
+                "{ insertOne: { document: { _id: 2, name: 'Mark' } } }",
+                "{ insertOne: { document: { _id: 1, name: 'Duplicate' } } }",
+                "{ insertOne: { document: { _id: 3, name: 'Anna' } } }");
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(operations).build();
+
+        // When
+        BulkWriteException thrown = assertThrows(BulkWriteException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("1 of 3 bulk write operations failed (first failed operation index=[1], code=[11000]");
+        assertExistDocumentWith("{ _id: 2, name: 'Mark' }");
+        assertDocumentsCount(2);
+    }
+
+    @Test
+    void shouldReportWriteConcernErrorWhenNoOperationFailed() {
+        // Given
+        MongoCollection<Document> collection = mockCollection();
+        WriteConcernError writeConcernError = new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out", new BsonDocument());
+        MongoBulkWriteException exception = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, emptyList()), emptyList(), writeConcernError, new ServerAddress());
+        doThrow(exception).when(collection).bulkWrite(anyList(), any(BulkWriteOptions.class));
+
+        List<String> operations = singletonList("{ insertOne: { document: { _id: 1, name: 'Mark' } } }");
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(operations).build();
+
+        // When
+        BulkWriteException thrown = assertThrows(BulkWriteException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessage("0 of 1 bulk write operations failed " +
+                "(write concern error code=[64], error=[waiting for replication timed out]).");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenOperationIsNotValid() {
+        // Given
+        List<String> operations = asList(
+                "{ insertOne: { document: { name: 'Anna' } } }",
+                "{ upsertOne: { filter: { _id: 1 } } }");
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(operations).build();
+
+        // When
+        BulkWriteException thrown = assertThrows(BulkWriteException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessage("The bulk write operation at index=[1] is not valid: it must be a document " +
+                "with one of insertOne, updateOne, updateMany, replaceOne, deleteOne, deleteMany as only key (found=[upsertOne]).");
+        assertDocumentsCount(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> mockCollection() {
+        MongoClient client = mock(MongoClient.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        component.clientFactory = mock(ClientFactory.class);
+        doReturn(client).when(component.clientFactory).clientByConfig(component, connectionConfiguration);
+        doReturn(database).when(client).getDatabase(connectionConfiguration.getDatabase());
+        doReturn(WriteConcern.ACKNOWLEDGED).when(database).getWriteConcern();
+        doReturn(collection).when(database).getCollection(collectionName);
+        doReturn(collection).when(collection).withWriteConcern(any(WriteConcern.class));
+        return collection;
+    }
+}
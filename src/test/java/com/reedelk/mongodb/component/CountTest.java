@@ -1,20 +1,25 @@
 package com.reedelk.mongodb.component;
 
 import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.exception.CollectionException;
 import com.reedelk.mongodb.internal.exception.CountException;
 import com.reedelk.runtime.api.commons.ModuleContext;
 import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 
 class CountTest extends AbstractMongoDBTest {
 
@@ -24,7 +29,7 @@ class CountTest extends AbstractMongoDBTest {
     void setUp() {
         super.setUp();
         component.setConnection(connectionConfiguration);
-        component.setCollection(collectionName);
+        component.setCollection(DynamicString.from(collectionName));
         component.clientFactory = new ClientFactory();
         component.scriptService = scriptService;
     }
@@ -75,6 +80,71 @@ class CountTest extends AbstractMongoDBTest {
         assertThat(count).isEqualTo(2L);
     }
 
+    @Test
+    void shouldCorrectlyCountDocumentsWithReadPreference() {
+        // Given
+        insertDocument("{name:'Olav', surname: 'Zipser', age: 55}");
+        insertDocument("{name:'Mark', surname: 'Anton', age: 32}");
+
+        ReadPreferenceConfiguration readPreference = new ReadPreferenceConfiguration();
+        readPreference.setMode(ReadPreferenceMode.SECONDARY_PREFERRED);
+        component.setReadPreference(readPreference);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Long count = actual.payload();
+        assertThat(count).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldWarmUpConnectionsWhenInitialized() {
+        // Given
+        connectionConfiguration.setWarmUp(true);
+        connectionConfiguration.setMinPoolSize(2);
+
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Long count = actual.payload();
+        assertThat(count).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldCorrectlyCountDocumentsWithQueryTemplate() {
+        // Given
+        insertDocument("{name:'Olav', surname: 'Zipser', age: 55}");
+        insertDocument("{name:'Mark', surname: 'Anton', age: 32}");
+        insertDocument("{name:'Josh', surname: 'Red', age: 49}");
+
+        component.setQuery(DynamicObject.from("{ age: { $gt: :payload.minAge }, name: { $in: [ :context.name, 'Josh' ] } }"));
+        component.initialize();
+
+        doReturn("Olav").when(context).get("name");
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("minAge", 40);
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(payload).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Long count = actual.payload();
+        assertThat(count).isEqualTo(2L);
+        assertThat(actual.attributes().get("query"))
+                .isEqualTo("{\"age\": {\"$gt\": 40}, \"name\": {\"$in\": [\"Olav\", \"Josh\"]}}");
+    }
+
     @Test
     void shouldThrowExceptionWhenFilterEvaluatesToNull() {
         // Given
@@ -98,4 +168,51 @@ class CountTest extends AbstractMongoDBTest {
                         "I cannot execute Count operation with a null query " +
                         "(DynamicValue=[#[context.myFilter]]).");
     }
+
+    @Test
+    void shouldCountDocumentsOfCollectionEvaluatedFromExpression() {
+        // Given
+        insertDocument("{name:'Olav', surname: 'Zipser', age: 55}");
+        insertDocument("{name:'Mark', surname: 'Anton', age: 32}");
+
+        DynamicString collection = DynamicString.from("#[message.attributes().collection]", new ModuleContext(10L));
+        component.setCollection(collection);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        doReturn(Optional.of(collectionName))
+                .when(scriptService)
+                .evaluate(collection, context, input);
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Long count = actual.payload();
+        assertThat(count).isEqualTo(2L);
+        assertThat(actual.attributes().get("collection")).isEqualTo(collectionName);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCollectionEvaluatesToEmpty() {
+        // Given
+        DynamicString collection = DynamicString.from("#[message.attributes().collection]", new ModuleContext(10L));
+        component.setCollection(collection);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        doAnswer(invocation -> Optional.empty())
+                .when(scriptService)
+                .evaluate(collection, context, input);
+
+        // When
+        CollectionException thrown =
+                assertThrows(CollectionException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown)
+                .hasMessage("The MongoDB collection name was empty (DynamicValue=[#[message.attributes().collection]]).");
+    }
 }
@@ -1,12 +1,14 @@
 package com.reedelk.mongodb.component;
 
 import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.commons.BatchedDelete;
 import com.reedelk.mongodb.internal.exception.DeleteException;
 import com.reedelk.runtime.api.commons.ModuleContext;
 import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageAttributes;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doAnswer;
 
@@ -25,7 +28,7 @@ class DeleteTest extends AbstractMongoDBTest {
     void setUp() {
         super.setUp();
         component.setConnection(connectionConfiguration);
-        component.setCollection(collectionName);
+        component.setCollection(DynamicString.from(collectionName));
         component.clientFactory = new ClientFactory();
         component.scriptService = scriptService;
     }
@@ -64,6 +67,157 @@ class DeleteTest extends AbstractMongoDBTest {
         assertDocumentsCount(1);
     }
 
+    @Test
+    void shouldDeleteWithoutWaitingForAcknowledgement() {
+        // Given
+        insertDocument("{name:'Mark', surname: 'Anton', age: 32}");
+
+        WriteConcernConfiguration writeConcern = new WriteConcernConfiguration();
+        writeConcern.setUnacknowledged(true);
+        component.setWriteConcern(writeConcern);
+        component.setQuery(DynamicObject.from("{ name: 'Mark' }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        long deleteCount = actual.payload();
+        assertThat(deleteCount).isEqualTo(0L);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("acknowledge", false);
+    }
+
+    @Test
+    void shouldDeleteManyInBatches() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            insertDocument("{_id: " + i + ", type: 'log'}");
+        }
+        insertDocument("{_id: 5, type: 'order'}");
+
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchSize(2);
+        component.setBatchPause(10);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        long deleteCount = actual.payload();
+        assertThat(deleteCount).isEqualTo(5L);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("deletedCount", 5L);
+        assertThat(attributes).containsEntry("batches", 3);
+
+        assertExistDocumentWith("{ _id: 5, type: 'order' }");
+        assertDocumentsCount(1);
+    }
+
+    @Test
+    void shouldDeleteManyInBatchesInBackground() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            insertDocument("{_id: " + i + ", type: 'log'}");
+        }
+
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchSize(2);
+        component.setBackground(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        String jobId = actual.payload();
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("jobId", jobId);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!component.backgroundDeletes.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertThat(component.backgroundDeletes).isEmpty();
+        assertDocumentsCount(0);
+    }
+
+    @Test
+    void shouldDeleteManyInBatchesWithAcknowledgedBatchesWhenWriteConcernIsUnacknowledged() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            insertDocument("{_id: " + i + ", type: 'log'}");
+        }
+
+        WriteConcernConfiguration writeConcern = new WriteConcernConfiguration();
+        writeConcern.setUnacknowledged(true);
+        component.setWriteConcern(writeConcern);
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchSize(2);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        long deleteCount = actual.payload();
+        assertThat(deleteCount).isEqualTo(5L);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("batches", 3);
+        assertThat(attributes).containsEntry("acknowledge", true);
+
+        assertDocumentsCount(0);
+    }
+
+    @Test
+    void shouldCancelQueuedBackgroundDeletesOnDispose() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            insertDocument("{_id: " + i + ", type: 'log'}");
+        }
+
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchSize(1);
+        component.setBatchPause(60000);
+        component.setBackground(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+        String runningJobId = component.apply(context, input).payload();
+        String queuedJobId = component.apply(context, input).payload();
+        BatchedDelete running = component.backgroundDeletes.get(runningJobId);
+        BatchedDelete queued = component.backgroundDeletes.get(queuedJobId);
+        // The running delete deletes its first batch and then pauses.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (running.getBatches() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+
+        // When
+        component.dispose();
+
+        // Then
+        assertThat(running.getResult().join()).isEqualTo(1L);
+        assertThat(queued.getResult().isCancelled()).isTrue();
+        assertThat(queued.isDone()).isTrue();
+    }
+
     @Test
     void shouldCorrectlyDeleteOneWhenMoreThanOneMatching() {
         // Given
@@ -141,4 +295,30 @@ class DeleteTest extends AbstractMongoDBTest {
                         "I cannot execute Delete operation with a null query " +
                         "(DynamicValue=[#[context.myFilter]]).");
     }
+
+    @Test
+    void shouldThrowExceptionWhenBatchSizeIsNotPositive() {
+        // Given
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchSize(0);
+
+        // Expect
+        assertThatThrownBy(() -> component.initialize())
+                .hasMessage("MongoDB delete batch size must be greater than 0");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenBatchPauseIsNegative() {
+        // Given
+        component.setQuery(DynamicObject.from("{ type: 'log' }"));
+        component.setMany(true);
+        component.setBatched(true);
+        component.setBatchPause(-1);
+
+        // Expect
+        assertThatThrownBy(() -> component.initialize())
+                .hasMessage("MongoDB delete batch pause must not be negative");
+    }
 }
@@ -0,0 +1,74 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindOneAndDeleteTest extends AbstractMongoDBTest {
+
+    private FindOneAndDelete component = new FindOneAndDelete();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        component.setConnection(connectionConfiguration);
+        component.setCollection(collectionName);
+        component.clientFactory = new ClientFactory();
+        component.scriptService = scriptService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        super.tearDown();
+        if (component != null) {
+            component.dispose();
+        }
+    }
+
+    @Test
+    void shouldDeleteOldestDocumentAndReturnIt() {
+        // Given
+        insertDocument("{_id: 1, message: 'first', createdAt: 1}");
+        insertDocument("{_id: 2, message: 'second', createdAt: 2}");
+
+        component.setQuery(DynamicObject.from("{ createdAt: { $gt: 0 } }"));
+        component.setSort(DynamicObject.from("{ createdAt: 1 }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Map<String, Object> deleted = actual.payload();
+        assertThat(deleted).containsEntry("_id", 1).containsEntry("message", "first");
+
+        assertExistDocumentWith("{ _id: 2 }");
+        assertDocumentsCount(1);
+    }
+
+    @Test
+    void shouldReturnEmptyPayloadWhenNoDocumentMatches() {
+        // Given
+        component.setQuery(DynamicObject.from("{ _id: 5 }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+}
@@ -0,0 +1,76 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindOneAndReplaceTest extends AbstractMongoDBTest {
+
+    private FindOneAndReplace component = new FindOneAndReplace();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        component.setConnection(connectionConfiguration);
+        component.setCollection(collectionName);
+        component.clientFactory = new ClientFactory();
+        component.scriptService = scriptService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        super.tearDown();
+        if (component != null) {
+            component.dispose();
+        }
+    }
+
+    @Test
+    void shouldReplaceDocumentAndReturnPreviousDocument() {
+        // Given
+        insertDocument("{_id: 1, name:'Olav', surname: 'Zipser', age: 55}");
+
+        component.setQuery(DynamicObject.from("{ _id: 1 }"));
+        component.setDocument(DynamicObject.from("{ name: 'Mark', age: 32 }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Map<String, Object> previous = actual.payload();
+        assertThat(previous).containsEntry("name", "Olav").containsEntry("surname", "Zipser");
+
+        assertExistDocumentWith("{ _id: 1, name: 'Mark', age: 32, surname: { $exists: false } }");
+    }
+
+    @Test
+    void shouldUpsertReplacementWhenNoDocumentMatches() {
+        // Given
+        component.setQuery(DynamicObject.from("{ _id: 3 }"));
+        component.setDocument(DynamicObject.from("{ name: 'Anna' }"));
+        component.setUpsert(true);
+        component.setReturnReplaced(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Map<String, Object> replacement = actual.payload();
+        assertThat(replacement).containsEntry("_id", 3).containsEntry("name", "Anna");
+        assertDocumentsCount(1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindOneAndUpdateTest extends AbstractMongoDBTest {
+
+    private FindOneAndUpdate component = new FindOneAndUpdate();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        component.setConnection(connectionConfiguration);
+        component.setCollection(collectionName);
+        component.clientFactory = new ClientFactory();
+        component.scriptService = scriptService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        super.tearDown();
+        if (component != null) {
+            component.dispose();
+        }
+    }
+
+    @Test
+    void shouldClaimDocumentWithHighestPriority() {
+        // Given
+        insertDocument("{_id: 1, job: 'report', status: 'pending', priority: 1}");
+        insertDocument("{_id: 2, job: 'invoice', status: 'pending', priority: 5}");
+
+        component.setQuery(DynamicObject.from("{ status: 'pending' }"));
+        component.setDocument(DynamicObject.from("{ $set: { status: 'running' } }"));
+        component.setSort(DynamicObject.from("{ priority: -1 }"));
+        component.setReturnUpdated(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Map<String, Object> claimed = actual.payload();
+        assertThat(claimed).containsEntry("_id", 2).containsEntry("status", "running");
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("query", "{ status: 'pending' }");
+
+        assertExistDocumentWith("{ _id: 1, status: 'pending' }");
+        assertExistDocumentWith("{ _id: 2, status: 'running' }");
+    }
+
+    @Test
+    void shouldReturnDocumentBeforeUpdateWithProjection() {
+        // Given
+        insertDocument("{_id: 1, job: 'report', status: 'pending', priority: 1}");
+
+        component.setQuery(DynamicObject.from("{ _id: 1 }"));
+        component.setDocument(DynamicObject.from("{ $set: { status: 'running' } }"));
+        component.setProjection(DynamicObject.from("{ status: 1 }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Map<String, Object> previous = actual.payload();
+        assertThat(previous).containsOnlyKeys("_id", "status").containsEntry("status", "pending");
+        assertExistDocumentWith("{ _id: 1, status: 'running' }");
+    }
+
+    @Test
+    void shouldReturnEmptyPayloadWhenNoDocumentMatches() {
+        // Given
+        component.setQuery(DynamicObject.from("{ status: 'pending' }"));
+        component.setDocument(DynamicObject.from("{ $set: { status: 'running' } }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+}
@@ -0,0 +1,234 @@
+package com.reedelk.mongodb.component;
+
+import com.reedelk.mongodb.internal.ClientFactory;
+import com.reedelk.mongodb.internal.exception.FindPageException;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
+import com.reedelk.runtime.api.message.MessageBuilder;
+import com.reedelk.runtime.api.message.content.MimeType;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicInteger;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+import org.json.JSONException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FindPageTest extends AbstractMongoDBTest {
+
+    private FindPage component = new FindPage();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        component.setConnection(connectionConfiguration);
+        component.setCollection(collectionName);
+        component.clientFactory = new ClientFactory();
+        component.scriptService = scriptService;
+
+        insertDocument("{_id: 1, name:'Olav', age: 55}");
+        insertDocument("{_id: 2, name:'Mark', age: 32}");
+        insertDocument("{_id: 3, name:'John', age: 21}");
+        insertDocument("{_id: 4, name:'Anton', age: 47}");
+        insertDocument("{_id: 5, name:'Josh', age: 38}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        super.tearDown();
+        if (component != null) {
+            component.dispose();
+        }
+    }
+
+    @Test
+    void shouldReturnFirstPageAndContinuationToken() {
+        // Given
+        component.setPageSize(DynamicInteger.from(2));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        assertThat(idsOf(actual)).containsExactly(1, 2);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("hasMore", true);
+        assertThat(attributes).containsEntry("pageSize", 2);
+        assertThat(attributes.get("continuationToken")).isNotNull();
+    }
+
+    @Test
+    void shouldReturnAllPagesUsingContinuationToken() {
+        // Given
+        component.setPageSize(DynamicInteger.from(2));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        Message firstPage = component.apply(context, input);
+        String firstToken = (String) firstPage.attributes().get("continuationToken");
+
+        // When
+        component.setContinuationToken(DynamicString.from(firstToken));
+        Message secondPage = component.apply(context, input);
+        String secondToken = (String) secondPage.attributes().get("continuationToken");
+
+        component.setContinuationToken(DynamicString.from(secondToken));
+        Message thirdPage = component.apply(context, input);
+
+        // Then
+        assertThat(idsOf(secondPage)).containsExactly(3, 4);
+        assertThat(idsOf(thirdPage)).containsExactly(5);
+
+        MessageAttributes lastAttributes = thirdPage.attributes();
+        assertThat(lastAttributes).containsEntry("hasMore", false);
+        assertThat(lastAttributes.get("continuationToken")).isNull();
+    }
+
+    @Test
+    void shouldPaginateWithQueryFilterAndDescendingSortKey() throws JSONException {
+        // Given
+        component.setQuery(DynamicObject.from("{ age: { $gt: 30 } }"));
+        component.setSortKey("age");
+        component.setSortOrder(SortOrder.DESCENDING);
+        component.setPageSize(DynamicInteger.from(2));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        Message firstPage = component.apply(context, input);
+        String token = (String) firstPage.attributes().get("continuationToken");
+
+        // When
+        component.setContinuationToken(DynamicString.from(token));
+        Message secondPage = component.apply(context, input);
+
+        // Then
+        String firstPageJson = firstPage.payload();
+        JSONAssert.assertEquals("[{_id: 1, name: 'Olav', age: 55}, {_id: 4, name: 'Anton', age: 47}]",
+                firstPageJson, JSONCompareMode.STRICT);
+
+        String secondPageJson = secondPage.payload();
+        JSONAssert.assertEquals("[{_id: 5, name: 'Josh', age: 38}, {_id: 2, name: 'Mark', age: 32}]",
+                secondPageJson, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    void shouldNotSkipDocumentsSharingTheSameSortKeyValue() {
+        // Given
+        insertDocument("{_id: 6, name:'Olav', age: 21}");
+        insertDocument("{_id: 7, name:'Mark', age: 21}");
+
+        component.setSortKey("age");
+        component.setPageSize(DynamicInteger.from(2));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        Message firstPage = component.apply(context, input);
+        String token = (String) firstPage.attributes().get("continuationToken");
+
+        // When
+        component.setContinuationToken(DynamicString.from(token));
+        Message secondPage = component.apply(context, input);
+
+        // Then
+        assertThat(idsOf(firstPage)).containsExactly(3, 6);
+        assertThat(idsOf(secondPage)).containsExactly(7, 2);
+    }
+
+    @Test
+    void shouldPaginateWithQueryTemplate() {
+        // Given
+        component.setQuery(DynamicObject.from("{ age: { $gt: :payload } }"));
+        component.setPageSize(DynamicInteger.from(2));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(35).build();
+
+        Message firstPage = component.apply(context, input);
+        String token = (String) firstPage.attributes().get("continuationToken");
+
+        // When
+        component.setContinuationToken(DynamicString.from(token));
+        Message secondPage = component.apply(context, input);
+
+        // Then
+        assertThat(idsOf(firstPage)).containsExactly(1, 4);
+        assertThat(idsOf(secondPage)).containsExactly(5);
+        assertThat(secondPage.attributes().get("query")).isEqualTo("{\"age\": {\"$gt\": 35}}");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenSortKeyIsMissing() {
+        // Given
+        component.setSortKey("surname");
+        component.setPageSize(DynamicInteger.from(2));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        FindPageException thrown =
+                assertThrows(FindPageException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessage("The sort key=[surname] is missing in the document=[{\"_id\": 2}]. " +
+                "The sort key must be present in all the paginated documents.");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenContinuationTokenIsNotValid() {
+        // Given
+        component.setContinuationToken(DynamicString.from("not-a-valid-token"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        FindPageException thrown =
+                assertThrows(FindPageException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessage("The continuation token=[not-a-valid-token] is not valid. " +
+                "The continuation token must be the one returned in the attributes of the previous page.");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPageSizeIsNotValid() {
+        // Given
+        component.setPageSize(DynamicInteger.from(0));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        FindPageException thrown =
+                assertThrows(FindPageException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown).hasMessage("The page size must be greater than zero (found=[0]).");
+    }
+
+    private List<Object> idsOf(Message message) {
+        List<Map<String, Object>> results = message.payload();
+        return results.stream().map(result -> result.get("_id")).collect(toList());
+    }
+}
@@ -7,7 +7,10 @@ import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.message.content.MimeType;
 import com.reedelk.runtime.api.message.content.Pair;
+import com.reedelk.runtime.api.message.content.TypedContent;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicInteger;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.json.JSONException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -16,12 +19,17 @@ import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.testcontainers.shaded.com.google.common.collect.ImmutableMap;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doAnswer;
 import static org.testcontainers.shaded.com.google.common.collect.ImmutableMap.of;
@@ -41,7 +49,7 @@ class FindTest extends AbstractMongoDBTest {
     void setUp() {
         super.setUp();
         component.setConnection(connectionConfiguration);
-        component.setCollection(collectionName);
+        component.setCollection(DynamicString.from(collectionName));
         component.clientFactory = new ClientFactory();
         component.scriptService = scriptService;
     }
@@ -240,4 +248,203 @@ class FindTest extends AbstractMongoDBTest {
         Integer id = (Integer) document.get("_id");
         assertThat(id).isEqualTo(21);
     }
+
+    @Test
+    void shouldCorrectlyApplyProjectionSortAndLimit() {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: { $in: ['Olav', 'Mark'] } }"));
+        component.setProjection(DynamicObject.from("{ name: 1, _id: 0 }"));
+        component.setSort(DynamicObject.from("{ age: 1 }"));
+        component.setLimit(DynamicInteger.from(1));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Map<String, Object>> results = actual.payload();
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0)).containsOnly(entry("name", "Mark"));
+    }
+
+    @Test
+    void shouldCorrectlyApplySkip() {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: { $in: ['Olav', 'Mark'] } }"));
+        component.setSort(DynamicObject.from("{ age: -1 }"));
+        component.setSkip(DynamicInteger.from(1));
+        component.setBatchSize(1);
+        component.setMaxTime(5000L);
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Map<String, Object>> results = actual.payload();
+        assertThat(results).hasSize(1);
+        assertExistEntry(results, of("name", "Mark", "surname", "Anton", "age", 32));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldCorrectlyFindItemsWithLazyDecoding() {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: 'Olav' }"));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.setLazyDecoding(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Map<String, Object>> results = actual.payload();
+        assertThat(results).hasSize(1);
+        assertExistEntry(results, of("name", "Olav", "surname", "Zipser", "age", 55));
+
+        Map<String, Object> id = (Map<String, Object>) results.get(0).get("_id");
+        assertThat(id).containsKey("$oid");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldCorrectlyStreamItemsWhenStreamingIsTrue() {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: { $in: ['Olav', 'Mark'] } }"));
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.setStreaming(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        TypedContent<?, ?> content = actual.content();
+        assertThat(content.isStream()).isTrue();
+
+        List<Map<String, Object>> results = Flux.from(content.stream())
+                .map(item -> (Map<String, Object>) item)
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(2);
+        assertExistEntry(results, of("name", "Olav", "surname", "Zipser", "age", 55));
+        assertExistEntry(results, of("name", "Mark", "surname", "Anton", "age", 32));
+    }
+
+    @Test
+    void shouldCorrectlyStreamResultsAsJsonArrayWhenStreamingIsTrue() throws JSONException {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: { $in: ['Olav', 'Mark'] } }"));
+        component.setStreaming(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        TypedContent<?, ?> content = actual.content();
+        assertThat(content.isStream()).isTrue();
+
+        String actualJson = Flux.from(content.stream())
+                .map(Object::toString)
+                .collect(joining())
+                .block();
+
+        String expectedJson = "[" +
+                "{ \"name\": \"Olav\", \"surname\": \"Zipser\", \"age\": 55}," +
+                "{ \"name\": \"Mark\", \"surname\": \"Anton\", \"age\": 32}" +
+                "]";
+        JSONAssert.assertEquals(expectedJson, actualJson, JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    void shouldStreamSameJsonArrayAsNotStreamedOutput() {
+        // Given
+        component.setQuery(DynamicObject.from("{ name: { $in: ['Olav', 'Mark'] } }"));
+        component.setSort(DynamicObject.from("{ age: 1 }"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+        String notStreamedJson = component.apply(context, input).payload();
+
+        component.dispose();
+        component.setStreaming(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        String streamedJson = Flux.from(actual.content().stream())
+                .map(Object::toString)
+                .collect(joining())
+                .block();
+        assertThat(streamedJson).isEqualTo(notStreamedJson);
+    }
+
+    @Test
+    void shouldCorrectlyFindAllItemsWithUnorderedParallelScan() {
+        // Given
+        for (int i = 0; i < 50; i++) {
+            insertDocument("{ group: 'unordered', index: " + i + " }");
+        }
+        component.setQuery(DynamicObject.from("{ group: 'unordered' }"));
+        component.setParallelScanPartitions(4);
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Map<String, Object>> results = actual.payload();
+        List<Object> indexes = results.stream().map(result -> result.get("index")).collect(toList());
+        assertThat(indexes).hasSize(50).doesNotHaveDuplicates();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldCorrectlyStreamItemsInIdOrderWithOrderedParallelScan() {
+        // Given
+        for (int i = 0; i < 50; i++) {
+            insertDocument("{ group: 'ordered', index: " + i + " }");
+        }
+        component.setQuery(DynamicObject.from("{ group: 'ordered' }"));
+        component.setParallelScanPartitions(4);
+        component.setParallelScanOrdered(true);
+        component.setMimeType(MimeType.AsString.APPLICATION_JAVA);
+        component.setStreaming(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        TypedContent<?, ?> content = actual.content();
+        List<Object> indexes = Flux.from(content.stream())
+                .map(item -> ((Map<String, Object>) item).get("index"))
+                .collectList()
+                .block();
+
+        // Object IDs generated on insert are increasing.
+        assertThat(indexes).hasSize(50).isSorted();
+    }
 }
@@ -2,19 +2,32 @@ package com.reedelk.mongodb.component;
 
 import com.reedelk.mongodb.internal.ClientFactory;
 import com.reedelk.mongodb.internal.exception.DocumentException;
+import com.reedelk.mongodb.internal.exception.InsertException;
 import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.message.content.Pair;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.shaded.com.google.common.collect.ImmutableMap;
+import reactor.core.publisher.Flux;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,7 +43,7 @@ class InsertTest extends AbstractMongoDBTest {
     void setUp() {
         super.setUp();
         component.setConnection(connectionConfiguration);
-        component.setCollection(collectionName);
+        component.setCollection(DynamicString.from(collectionName));
         component.clientFactory = new ClientFactory();
         component.scriptService = scriptService;
     }
@@ -78,6 +91,44 @@ class InsertTest extends AbstractMongoDBTest {
         assertExistDocumentWith("{ age: 23 }");
     }
 
+    @Test
+    void shouldInsertDocumentFromMapWithJavaTimeValues() {
+        // Given
+        Map<String, Object> documentMap = new HashMap<>();
+        documentMap.put("name", "John");
+        documentMap.put("createdAt", Instant.ofEpochMilli(1590000000000L));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(documentMap).build();
+
+        // When
+        component.apply(context, input);
+
+        // Then
+        assertExistDocumentWith("{ name: 'John', createdAt: { $date: 1590000000000 } }");
+    }
+
+    @Test
+    void shouldInsertDocumentsFromListOfMapsWithJavaTimeValues() {
+        // Given
+        Map<String, Object> documentMap1 = new HashMap<>();
+        documentMap1.put("name", "John");
+        documentMap1.put("createdAt", Instant.ofEpochMilli(1590000000000L));
+        Map<String, Object> documentMap2 = new HashMap<>();
+        documentMap2.put("name", "Olav");
+        documentMap2.put("createdAt", Instant.ofEpochMilli(1590000001000L));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(asList(documentMap1, documentMap2)).build();
+
+        // When
+        component.apply(context, input);
+
+        // Then
+        assertExistDocumentWith("{ name: 'John', createdAt: { $date: 1590000000000 } }");
+        assertExistDocumentWith("{ name: 'Olav', createdAt: { $date: 1590000001000 } }");
+    }
+
     @Test
     void shouldInsertDocumentFromPair() {
         // Given
@@ -243,4 +294,269 @@ class InsertTest extends AbstractMongoDBTest {
         List<Integer> insertedIds = actual.payload();
         assertThat(insertedIds).containsExactly(2, 33, 45);
     }
+
+    @Test
+    void shouldInsertDocumentsFromListInChunks() {
+        // Given
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            documents.add("{ _id: " + i + ", chunked: true }");
+        }
+        component.setDocument(DynamicObject.from(documents));
+        component.setChunkSize(3);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Integer> insertedIds = actual.payload();
+        assertThat(insertedIds).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertExistDocumentsWith("{ chunked: true }", 7);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldInsertAllValidDocumentsAndReportFailuresWhenUnordered() {
+        // Given
+        insertDocument("{ _id: 3, name: 'Existing' }");
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            documents.add("{ _id: " + i + ", unordered: true }");
+        }
+        component.setDocument(DynamicObject.from(documents));
+        component.setOrdered(false);
+        component.setContinueOnError(true);
+        component.setChunkSize(2);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Integer> insertedIds = actual.payload();
+        assertThat(insertedIds).containsExactly(0, 1, 2, 4, 5);
+        assertExistDocumentsWith("{ unordered: true }", 5);
+
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("insertedCount", 5);
+        assertThat(attributes).containsEntry("failedCount", 1);
+
+        List<Map<String, Object>> failures = (List<Map<String, Object>>) attributes.get("failures");
+        assertThat(failures.get(0)).containsEntry("index", 3);
+        assertThat(failures.get(0)).containsEntry("code", 11000);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUnorderedInsertFailsAndContinueOnErrorIsFalse() {
+        // Given
+        insertDocument("{ _id: 1, name: 'Existing' }");
+        component.setDocument(DynamicObject.from(asList("{ _id: 0 }", "{ _id: 1 }", "{ _id: 2 }")));
+        component.setOrdered(false);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        InsertException thrown = assertThrows(InsertException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown.getMessage()).startsWith("1 of 3 documents could not be inserted (first failed document index=[1], code=[11000]");
+        assertThat(thrown.getInsertedIds()).containsExactly(0, 2);
+        assertExistDocumentWith("{ _id: 2 }");
+    }
+
+    @Test
+    void shouldStopOrderedInsertAtFirstErrorAndReportInsertedIds() {
+        // Given
+        insertDocument("{ _id: 4, name: 'Existing' }");
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            documents.add("{ _id: " + i + ", ordered: true }");
+        }
+        component.setDocument(DynamicObject.from(documents));
+        component.setChunkSize(3);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        InsertException thrown = assertThrows(InsertException.class, () -> component.apply(context, input));
+
+        // Then
+        assertThat(thrown.getMessage()).startsWith("The ordered insert stopped at the document with index=[4], " +
+                "the 4 documents before it were inserted (code=[11000]");
+        assertThat(thrown.getInsertedIds()).containsExactly(0, 1, 2, 3);
+        assertExistDocumentsWith("{ ordered: true }", 4);
+    }
+
+    @Test
+    void shouldInsertDocumentsFromStreamedNdjsonPayload() {
+        // Given
+        byte[] ndjson = ("{ _id: 1, streamed: true }\n" +
+                "{ _id: 2, streamed: true }\n" +
+                "{ _id: 3, streamed: true }\n").getBytes(StandardCharsets.UTF_8);
+        // The chunks boundaries do not match the documents boundaries.
+        Flux<byte[]> stream = Flux.range(0, ndjson.length / 10 + 1)
+                .map(index -> Arrays.copyOfRange(ndjson, index * 10, Math.min(ndjson.length, index * 10 + 10)));
+
+        component.setChunkSize(2);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).withBinary(stream).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Integer> insertedIds = actual.payload();
+        assertThat(insertedIds).containsExactly(1, 2, 3);
+        assertExistDocumentsWith("{ streamed: true }", 3);
+    }
+
+    @Test
+    void shouldInsertSingleDocumentFromStreamedJsonPayload() {
+        // Given
+        Flux<String> stream = Flux.just("{ _id: 10, ", "single: true }");
+
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).withJson(stream).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Integer insertedId = actual.payload();
+        assertThat(insertedId).isEqualTo(10);
+        assertExistDocumentsWith("{ single: true }", 1);
+    }
+
+    @Test
+    void shouldInsertDocumentsFromStreamOfMaps() {
+        // Given
+        Map<String, Object> first = new HashMap<>();
+        first.put("_id", 20);
+        first.put("fromMap", true);
+        Map<String, Object> second = new HashMap<>();
+        second.put("_id", 21);
+        second.put("fromMap", true);
+
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class)
+                .withStream(Flux.just(first, second), Map.class)
+                .build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<Integer> insertedIds = actual.payload();
+        assertThat(insertedIds).containsExactly(20, 21);
+        assertExistDocumentsWith("{ fromMap: true }", 2);
+    }
+
+    @Test
+    void shouldInsertDocumentsFromJsonArrayInputStream() {
+        // Given
+        String jsonArray = "[ { name: 'John' }, { name: 'Mark' } ]";
+        InputStream stream = new ByteArrayInputStream(jsonArray.getBytes(StandardCharsets.UTF_8));
+
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).withJavaObject(stream).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        List<String> insertedIds = actual.payload();
+        assertThat(insertedIds).hasSize(2);
+        assertExistDocumentWith("{ name: 'John' }");
+        assertExistDocumentWith("{ name: 'Mark' }");
+    }
+
+    @Test
+    void shouldInsertDocumentFromJsonBytes() {
+        // Given
+        byte[] json = "{ name: 'John', surname: 'Doe', age: 23 }".getBytes(StandardCharsets.UTF_8);
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).withBinary(json).build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        String insertedId = actual.payload();
+        assertThat(insertedId).isNotNull();
+        assertExistDocumentWith("{ _id: { $oid: '" + insertedId + "' }, name: 'John', age: 23 }");
+    }
+
+    @Test
+    void shouldInsertWithWriteConcern() {
+        // Given
+        WriteConcernConfiguration writeConcern = new WriteConcernConfiguration();
+        writeConcern.setW("1");
+        writeConcern.setJournal(true);
+        component.setWriteConcern(writeConcern);
+        component.setDocument(DynamicObject.from("{ name: 'John' }"));
+        component.initialize();
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("acknowledge", true);
+        assertExistDocumentWith("{ name: 'John' }");
+    }
+
+    @Test
+    void shouldInsertDocumentsFromConcurrentMessagesInBatches() {
+        // Given
+        component.setBatching(true);
+        component.setBatchSize(5);
+        component.setBatchMaxWait(100);
+        component.initialize();
+
+        // When
+        List<CompletableFuture<Message>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Message input = MessageBuilder.get(TestComponent.class).withJavaObject("{ batched: " + i + " }").build();
+            results.add(CompletableFuture.supplyAsync(() -> component.apply(context, input)));
+        }
+
+        // Then
+        results.forEach(result -> {
+            String insertedId = result.join().payload();
+            assertThat(insertedId).isNotNull();
+        });
+        assertExistDocumentsWith("{ batched: { $exists: true } }", 10);
+    }
+
+    @Test
+    void shouldFailOnlyMessageWhoseDocumentCouldNotBeInsertedInBatch() {
+        // Given
+        insertDocument("{ _id: 1, name: 'Existing' }");
+        component.setBatching(true);
+        component.setBatchSize(2);
+        component.setBatchMaxWait(5000);
+        component.initialize();
+
+        Message duplicate = MessageBuilder.get(TestComponent.class).withJavaObject("{ _id: 1, name: 'Duplicate' }").build();
+        Message valid = MessageBuilder.get(TestComponent.class).withJavaObject("{ _id: 2, name: 'Valid' }").build();
+
+        // When
+        CompletableFuture<Message> duplicateResult = CompletableFuture.supplyAsync(() -> component.apply(context, duplicate));
+        CompletableFuture<Message> validResult = CompletableFuture.supplyAsync(() -> component.apply(context, valid));
+
+        // Then
+        Integer insertedId = validResult.join().payload();
+        assertThat(insertedId).isEqualTo(2);
+
+        CompletionException thrown = assertThrows(CompletionException.class, duplicateResult::join);
+        assertThat(thrown).hasCauseInstanceOf(InsertException.class);
+        assertThat(thrown.getCause().getMessage()).contains("code=[11000]");
+
+        assertExistDocumentWith("{ _id: 1, name: 'Existing' }");
+        assertExistDocumentWith("{ _id: 2, name: 'Valid' }");
+    }
 }
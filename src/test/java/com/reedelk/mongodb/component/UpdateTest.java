@@ -7,6 +7,7 @@ import com.reedelk.runtime.api.message.Message;
 import com.reedelk.runtime.api.message.MessageAttributes;
 import com.reedelk.runtime.api.message.MessageBuilder;
 import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class UpdateTest extends AbstractMongoDBTest {
     void setUp() {
         super.setUp();
         component.setConnection(connectionConfiguration);
-        component.setCollection(collectionName);
+        component.setCollection(DynamicString.from(collectionName));
         component.clientFactory = new ClientFactory();
         component.scriptService = scriptService;
     }
@@ -72,6 +73,52 @@ class UpdateTest extends AbstractMongoDBTest {
         assertDocumentsCount(2);
     }
 
+    @Test
+    void shouldUpsertDocumentWhenNoDocumentMatches() {
+        // Given
+        insertDocument("{name:'Olav', surname: 'Zipser', age: 55}");
+
+        component.setDocument(DynamicObject.from("{ $set: { surname: 'Anton', age: 32 } }"));
+        component.setQuery(DynamicObject.from("{ _id: 7, name: 'Mark' }"));
+        component.setUpsert(true);
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        MessageAttributes attributes = actual.attributes();
+        assertThat(attributes).containsEntry("matchedCount", 0L);
+        assertThat(attributes).containsEntry("upsertedId", "7");
+
+        assertExistDocumentWith("{ _id: 7, name: 'Mark', surname: 'Anton', age: 32 }");
+        assertDocumentsCount(2);
+    }
+
+    @Test
+    void shouldUpdateArrayElementsMatchingArrayFilters() {
+        // Given
+        insertDocument("{_id: 1, name:'Olav', grades: [ 80, 90, 95 ]}");
+
+        component.setDocument(DynamicObject.from("{ $set: { 'grades.$[grade]': 100 } }"));
+        component.setQuery(DynamicObject.from("{ _id: 1 }"));
+        component.setArrayFilters(DynamicObject.from("[ { grade: { $gte: 90 } } ]"));
+        component.initialize();
+
+        Message input = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, input);
+
+        // Then
+        Long modifiedCount = actual.payload();
+        assertThat(modifiedCount).isEqualTo(1);
+
+        assertExistDocumentWith("{ _id: 1, grades: [ 80, 100, 100 ] }");
+    }
+
     @Test
     void shouldThrowExceptionWhenDocumentEvaluatesToNull() {
         // Given
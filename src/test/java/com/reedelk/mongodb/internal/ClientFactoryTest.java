@@ -1,20 +1,32 @@
 package com.reedelk.mongodb.internal;
 
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoTimeoutException;
 import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
 import com.reedelk.mongodb.component.ConnectionConfiguration;
 import com.reedelk.mongodb.component.Insert;
 import com.reedelk.mongodb.component.Update;
+import com.reedelk.mongodb.internal.commons.ClientSettings;
+import com.reedelk.mongodb.internal.exception.ConnectionException;
 import com.reedelk.runtime.api.component.Component;
+import org.bson.conversions.Bson;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +37,8 @@ class ClientFactoryTest {
     private MongoClient client1;
     @Mock
     private MongoClient client2;
+    @Mock
+    private MongoDatabase database;
 
     private ClientFactory factory = spy(new ClientFactory());
 
@@ -35,7 +49,7 @@ class ClientFactoryTest {
     void setUp() {
         doReturn(client1, client2)
                 .when(factory)
-                .createClient(any(ConnectionConfiguration.class));
+                .createClient(any(MongoClientSettings.class));
     }
 
     @Test
@@ -49,8 +63,8 @@ class ClientFactoryTest {
 
         // Then
         assertThat(actual).isNotNull();
-        assertThat(factory.configIdClientMap).containsKey(configId);
-        verify(factory).createClient(configuration);
+        assertThat(factory.fingerprintClientMap).containsKey(fingerprintOf(configuration));
+        verify(factory).createClient(any(MongoClientSettings.class));
     }
 
     @Test
@@ -65,13 +79,13 @@ class ClientFactoryTest {
 
         // Then
         assertThat(updateClient).isEqualTo(insertClient);
-        assertThat(factory.configIdClientMap).containsKey(configId);
-        verify(factory).createClient(configuration);
+        assertThat(factory.fingerprintClientMap).containsKey(fingerprintOf(configuration));
+        verify(factory).createClient(any(MongoClientSettings.class));
 
-        ClientFactory.ConnectionHolder connectionHolder = factory.configIdClientMap.get(configId);
-        List<Component> componentsByClient = connectionHolder.components;
+        ClientFactory.ConnectionHolder connectionHolder = factory.fingerprintClientMap.get(fingerprintOf(configuration));
+        Set<Component> componentsByClient = connectionHolder.components;
         assertThat(componentsByClient).hasSize(2);
-        assertThat(componentsByClient).containsExactly(insert, update);
+        assertThat(componentsByClient).containsExactlyInAnyOrder(insert, update);
     }
 
     @Test
@@ -86,12 +100,12 @@ class ClientFactoryTest {
         factory.dispose(update, configuration);
 
         // Then
-        assertThat(factory.configIdClientMap).containsKey(configId); // Because Insert is still using it.
+        assertThat(factory.fingerprintClientMap).containsKey(fingerprintOf(configuration)); // Because Insert is still using it.
 
         verify(client1, never()).close();
 
-        ClientFactory.ConnectionHolder connectionHolder = factory.configIdClientMap.get(configId);
-        List<Component> componentsByClient = connectionHolder.components;
+        ClientFactory.ConnectionHolder connectionHolder = factory.fingerprintClientMap.get(fingerprintOf(configuration));
+        Set<Component> componentsByClient = connectionHolder.components;
         assertThat(componentsByClient).hasSize(1);
         assertThat(componentsByClient).containsExactly(insert); // Update component has been removed.
     }
@@ -109,7 +123,7 @@ class ClientFactoryTest {
         factory.dispose(insert, configuration);
 
         // Then
-        assertThat(factory.configIdClientMap).isEmpty(); // Because Insert and Update disposed it.
+        assertThat(factory.fingerprintClientMap).isEmpty(); // Because Insert and Update disposed it.
         verify(client1).close();
     }
 
@@ -120,6 +134,7 @@ class ClientFactoryTest {
         String configId2 = UUID.randomUUID().toString();
         ConnectionConfiguration configuration1 = createConfiguration(configId1);
         ConnectionConfiguration configuration2 = createConfiguration(configId2);
+        configuration2.setConnectionURL("mongodb://localhost:27018");
         factory.clientByConfig(insert, configuration1);
         factory.clientByConfig(update, configuration2);
 
@@ -127,7 +142,7 @@ class ClientFactoryTest {
         factory.dispose();
 
         // Then
-        assertThat(factory.configIdClientMap).isEmpty(); // Because Insert and Update disposed it.
+        assertThat(factory.fingerprintClientMap).isEmpty(); // Because Insert and Update disposed it.
         verify(client1).close();
         verify(client2).close();
     }
@@ -139,6 +154,7 @@ class ClientFactoryTest {
         String configId2 = UUID.randomUUID().toString();
         ConnectionConfiguration configuration1 = createConfiguration(configId1);
         ConnectionConfiguration configuration2 = createConfiguration(configId2);
+        configuration2.setConnectionURL("mongodb://localhost:27018");
         factory.clientByConfig(insert, configuration1);
         factory.clientByConfig(update, configuration2);
 
@@ -146,16 +162,114 @@ class ClientFactoryTest {
         factory.dispose(insert, configuration1);
 
         // Then
-        assertThat(factory.configIdClientMap).containsOnlyKeys(configId2);
+        assertThat(factory.fingerprintClientMap).containsOnlyKeys(fingerprintOf(configuration2));
 
-        ClientFactory.ConnectionHolder connectionHolder = factory.configIdClientMap.get(configId2);
-        List<Component> components = connectionHolder.components;
+        ClientFactory.ConnectionHolder connectionHolder = factory.fingerprintClientMap.get(fingerprintOf(configuration2));
+        Set<Component> components = connectionHolder.components;
         assertThat(components).containsExactly(update);
 
         verify(client1).close();
         verify(client2, never()).close();
     }
 
+    @Test
+    void shouldShareClientBetweenConfigurationsWithSameSettings() {
+        // Given
+        ConnectionConfiguration configuration1 = createConfiguration(UUID.randomUUID().toString());
+        configuration1.setConnectionURL("mongodb://host1:27017,host2:27017/?maxPoolSize=50");
+        ConnectionConfiguration configuration2 = createConfiguration(UUID.randomUUID().toString());
+        configuration2.setConnectionURL("mongodb://host2:27017,host1:27017/?maxPoolSize=50");
+
+        // When
+        MongoClient insertClient = factory.clientByConfig(insert, configuration1);
+        MongoClient updateClient = factory.clientByConfig(update, configuration2);
+
+        // Then
+        assertThat(updateClient).isEqualTo(insertClient);
+        assertThat(factory.fingerprintClientMap).hasSize(1);
+        verify(factory).createClient(any(MongoClientSettings.class));
+
+        // When
+        factory.dispose(insert, configuration1);
+
+        // Then
+        verify(client1, never()).close(); // Because Update is still using it.
+    }
+
+    @Test
+    void shouldNotShareClientBetweenConfigurationsWithDifferentCredentials() {
+        // Given
+        ConnectionConfiguration configuration1 = createConfiguration(UUID.randomUUID().toString());
+        ConnectionConfiguration configuration2 = createConfiguration(UUID.randomUUID().toString());
+        configuration2.setPassword("myOtherPassword");
+
+        // When
+        MongoClient insertClient = factory.clientByConfig(insert, configuration1);
+        MongoClient updateClient = factory.clientByConfig(update, configuration2);
+
+        // Then
+        assertThat(insertClient).isEqualTo(client1);
+        assertThat(updateClient).isEqualTo(client2);
+        assertThat(factory.fingerprintClientMap).hasSize(2);
+    }
+
+    @Test
+    void shouldCreateOneClientWhenComponentsStartConcurrently() throws Exception {
+        // Given
+        String configId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = createConfiguration(configId);
+        List<Component> components = new ArrayList<>();
+        for (int i = 0; i < 50; i++) components.add(new Insert());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<MongoClient>> clients = new ArrayList<>();
+        for (Component component : components) {
+            clients.add(executor.submit(() -> factory.clientByConfig(component, configuration)));
+        }
+
+        // Then
+        for (Future<MongoClient> client : clients) {
+            assertThat(client.get()).isEqualTo(client1);
+        }
+        verify(factory).createClient(any(MongoClientSettings.class));
+        assertThat(factory.fingerprintClientMap.get(fingerprintOf(configuration)).components).hasSize(50);
+
+        // When
+        List<Future<?>> disposed = new ArrayList<>();
+        for (Component component : components) {
+            disposed.add(executor.submit(() -> factory.dispose(component, configuration)));
+        }
+        for (Future<?> dispose : disposed) dispose.get();
+        executor.shutdown();
+
+        // Then
+        assertThat(factory.fingerprintClientMap).isEmpty();
+        verify(client1).close();
+    }
+
+    @Test
+    void shouldThrowAndReleaseConfigurationWhenWarmUpFails() {
+        // Given
+        ConnectionConfiguration configuration = createConfiguration(UUID.randomUUID().toString());
+        configuration.setWarmUp(true);
+        configuration.setWarmUpTimeout(5000);
+        doReturn(database).when(client1).getDatabase("myDatabase");
+        doThrow(new MongoTimeoutException("Timed out"))
+                .when(database).runCommand(any(Bson.class));
+
+        // Expect
+        assertThatThrownBy(() -> factory.clientByConfig(insert, configuration))
+                .isInstanceOf(ConnectionException.class)
+                .hasMessage("The MongoDB connection could not be warmed up (cause=[Timed out]).");
+        assertThat(factory.fingerprintClientMap).isEmpty();
+        verify(client1).close();
+    }
+
+    private ClientSettings.Fingerprint fingerprintOf(ConnectionConfiguration configuration) {
+        return ClientSettings.fingerprint(ClientSettings.from(configuration));
+    }
+
     private ConnectionConfiguration createConfiguration(String configId) {
         ConnectionConfiguration configuration = new ConnectionConfiguration();
         configuration.setConnectionURL("mongodb://localhost:27017");
@@ -0,0 +1,121 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ChunkedInsertTest {
+
+    private MongoCollection<RawBsonDocument> collection;
+    private ExecutorService executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        collection = mock(MongoCollection.class);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldStopOrderedInsertAtFirstWriteError() {
+        // Given
+        BulkWriteError writeError = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        List<RawBsonDocument> first = chunk(0, 1);
+        List<RawBsonDocument> second = chunk(2, 3);
+        List<RawBsonDocument> third = chunk(4, 5);
+        doThrow(bulkWriteException(writeError)).when(collection).insertMany(second);
+        ChunkedInsert chunkedInsert = ChunkedInsert.ordered(collection);
+
+        // When
+        chunkedInsert.insert(first);
+        chunkedInsert.insert(second);
+        chunkedInsert.insert(third);
+        List<BulkWriteError> errors = chunkedInsert.complete();
+
+        // Then
+        assertThat(chunkedInsert.hasFailed()).isTrue();
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getIndex()).isEqualTo(3);
+        verify(collection, never()).insertMany(third);
+    }
+
+    @Test
+    void shouldNotSubmitUnorderedChunksAfterFailedChunk() {
+        // Given
+        List<RawBsonDocument> first = chunk(0, 1);
+        List<RawBsonDocument> second = chunk(2, 3);
+        doThrow(new MongoSocketReadException("connection lost", new ServerAddress()))
+                .when(collection).insertMany(eq(first), any(InsertManyOptions.class));
+        ChunkedInsert chunkedInsert = ChunkedInsert.unordered(collection, executor, 1);
+
+        // When
+        chunkedInsert.insert(first);
+        chunkedInsert.insert(second);
+
+        // Then
+        assertThat(chunkedInsert.hasFailed()).isTrue();
+        assertThatThrownBy(chunkedInsert::complete)
+                .isInstanceOf(MongoSocketReadException.class)
+                .hasMessage("connection lost");
+        verify(collection, never()).insertMany(eq(second), any(InsertManyOptions.class));
+    }
+
+    @Test
+    void shouldCollectWriteErrorsOfAllUnorderedChunks() {
+        // Given
+        List<RawBsonDocument> first = chunk(0, 1);
+        List<RawBsonDocument> second = chunk(2, 3);
+        doThrow(bulkWriteException(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)))
+                .when(collection).insertMany(eq(first), any(InsertManyOptions.class));
+        doThrow(bulkWriteException(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)))
+                .when(collection).insertMany(eq(second), any(InsertManyOptions.class));
+        ChunkedInsert chunkedInsert = ChunkedInsert.unordered(collection, executor, 1);
+
+        // When
+        chunkedInsert.insert(first);
+        chunkedInsert.insert(second);
+        List<BulkWriteError> errors = chunkedInsert.complete();
+
+        // Then
+        assertThat(chunkedInsert.hasFailed()).isFalse();
+        assertThat(errors).extracting(BulkWriteError::getIndex).containsExactly(0, 3);
+        verify(collection, times(2)).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    private static List<RawBsonDocument> chunk(int firstId, int secondId) {
+        return asList(
+                RawBsonDocument.parse("{ \"_id\": " + firstId + " }"),
+                RawBsonDocument.parse("{ \"_id\": " + secondId + " }"));
+    }
+
+    private static MongoBulkWriteException bulkWriteException(BulkWriteError error) {
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                singletonList(error), null, new ServerAddress());
+    }
+}
@@ -0,0 +1,138 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.reedelk.mongodb.component.ConnectionConfiguration;
+import com.reedelk.mongodb.component.Insert;
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientSettingsTest {
+
+    @Test
+    void shouldApplyPoolSocketAndServerSettings() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017");
+        connection.setMaxPoolSize(250);
+        connection.setMinPoolSize(10);
+        connection.setMaxWaitTime(5000);
+        connection.setMaxConnectionIdleTime(60000);
+        connection.setMaxConnectionLifeTime(1800000);
+        connection.setConnectTimeout(3000);
+        connection.setSocketTimeout(30000);
+        connection.setHeartbeatFrequency(2000);
+        connection.setLocalThreshold(30);
+
+        // When
+        MongoClientSettings settings = ClientSettings.from(connection);
+
+        // Then
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(250);
+        assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(10);
+        assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(MILLISECONDS)).isEqualTo(5000);
+        assertThat(settings.getConnectionPoolSettings().getMaxConnectionIdleTime(MILLISECONDS)).isEqualTo(60000);
+        assertThat(settings.getConnectionPoolSettings().getMaxConnectionLifeTime(MILLISECONDS)).isEqualTo(1800000);
+        assertThat(settings.getSocketSettings().getConnectTimeout(MILLISECONDS)).isEqualTo(3000);
+        assertThat(settings.getSocketSettings().getReadTimeout(MILLISECONDS)).isEqualTo(30000);
+        assertThat(settings.getServerSettings().getHeartbeatFrequency(MILLISECONDS)).isEqualTo(2000);
+        assertThat(settings.getClusterSettings().getLocalThreshold(MILLISECONDS)).isEqualTo(30);
+    }
+
+    @Test
+    void shouldOverrideConnectionURLOptions() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017/?maxPoolSize=20&connectTimeoutMS=1000");
+        connection.setMaxPoolSize(300);
+
+        // When
+        MongoClientSettings settings = ClientSettings.from(connection);
+
+        // Then
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(300);
+        assertThat(settings.getSocketSettings().getConnectTimeout(MILLISECONDS)).isEqualTo(1000);
+    }
+
+    @Test
+    void shouldThrowWhenMinPoolSizeIsGreaterThanMaxPoolSize() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017");
+        connection.setMaxPoolSize(5);
+        connection.setMinPoolSize(10);
+
+        // Expect
+        assertThatThrownBy(() -> ClientSettings.validate(Insert.class, connection))
+                .hasMessage("MongoDB min pool size must not be greater than max pool size");
+    }
+
+    @Test
+    void shouldThrowWhenTimeoutIsNegative() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017");
+        connection.setSocketTimeout(-1);
+
+        // Expect
+        assertThatThrownBy(() -> ClientSettings.validate(Insert.class, connection))
+                .hasMessage("MongoDB socket timeout must not be negative");
+    }
+
+    @Test
+    void shouldApplyCompressorsInOrderOfPreference() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017");
+        connection.setCompressors("zstd, zlib");
+        connection.setZlibCompressionLevel(1);
+
+        // When
+        MongoClientSettings settings = ClientSettings.from(connection);
+
+        // Then
+        assertThat(settings.getCompressorList())
+                .extracting(MongoCompressor::getName)
+                .containsExactly("zstd", "zlib");
+        assertThat(settings.getCompressorList().get(1).getProperty(MongoCompressor.LEVEL, -1)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldHaveSameFingerprintForSameCompressors() {
+        // Given
+        ConnectionConfiguration connection1 = createConnection("mongodb://localhost:27017");
+        connection1.setCompressors("snappy,zlib");
+        connection1.setZlibCompressionLevel(6);
+        ConnectionConfiguration connection2 = createConnection("mongodb://localhost:27017");
+        connection2.setCompressors("Snappy, zlib");
+        connection2.setZlibCompressionLevel(6);
+        ConnectionConfiguration connection3 = createConnection("mongodb://localhost:27017");
+        connection3.setCompressors("snappy,zlib");
+        connection3.setZlibCompressionLevel(9);
+
+        // When
+        ClientSettings.Fingerprint fingerprint1 = ClientSettings.fingerprint(ClientSettings.from(connection1));
+        ClientSettings.Fingerprint fingerprint2 = ClientSettings.fingerprint(ClientSettings.from(connection2));
+        ClientSettings.Fingerprint fingerprint3 = ClientSettings.fingerprint(ClientSettings.from(connection3));
+
+        // Then
+        assertThat(fingerprint1).isEqualTo(fingerprint2);
+        assertThat(fingerprint1).isNotEqualTo(fingerprint3);
+    }
+
+    @Test
+    void shouldThrowWhenCompressorIsNotSupported() {
+        // Given
+        ConnectionConfiguration connection = createConnection("mongodb://localhost:27017");
+        connection.setCompressors("zlib,lz4");
+
+        // Expect
+        assertThatThrownBy(() -> ClientSettings.validate(Insert.class, connection))
+                .hasMessage("MongoDB compressor 'lz4' is not supported, supported compressors are: snappy, zlib, zstd");
+    }
+
+    private ConnectionConfiguration createConnection(String connectionURL) {
+        ConnectionConfiguration connection = new ConnectionConfiguration();
+        connection.setConnectionURL(connectionURL);
+        connection.setDatabase("test");
+        return connection;
+    }
+}
@@ -0,0 +1,139 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.reedelk.mongodb.internal.exception.CollectionException;
+import com.reedelk.runtime.api.commons.ModuleContext;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CollectionHandlesTest {
+
+    private MongoClient client;
+    private ScriptEngineService scriptService;
+    private FlowContext context;
+    private Message message;
+    private int createdHandles;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(MongoClient.class);
+        scriptService = mock(ScriptEngineService.class);
+        context = mock(FlowContext.class);
+        message = mock(Message.class);
+        doAnswer(invocation -> mock(MongoDatabase.class)).when(client).getDatabase(anyString());
+        createdHandles = 0;
+    }
+
+    @Test
+    void shouldResolveStaticHandleOnce() {
+        // Given
+        CollectionHandles<Document> handles = handles(null, DynamicString.from("orders"), 10);
+
+        // When
+        MongoCollection<Document> first = handles.get(scriptService, context, message);
+        MongoCollection<Document> second = handles.get(scriptService, context, message);
+
+        // Then
+        assertThat(handles.isStatic()).isTrue();
+        assertThat(first).isSameAs(second).isSameAs(handles.staticHandle());
+        assertThat(createdHandles).isEqualTo(1);
+        verify(client).getDatabase("connection-db");
+        verifyZeroInteractions(scriptService);
+    }
+
+    @Test
+    void shouldUseGivenStaticDatabase() {
+        // Given
+        CollectionHandles<Document> handles = handles(DynamicString.from("tenant-db"), DynamicString.from("orders"), 10);
+
+        // When
+        handles.get(scriptService, context, message);
+
+        // Then
+        verify(client).getDatabase("tenant-db");
+    }
+
+    @Test
+    void shouldReuseHandleOfSameEvaluatedCollection() {
+        // Given
+        DynamicString collection = script("#[message.attributes().tenant]");
+        CollectionHandles<Document> handles = handles(null, collection, 10);
+        doReturn(Optional.of("orders-a"), Optional.of("orders-b"), Optional.of("orders-a"))
+                .when(scriptService).evaluate(collection, context, message);
+
+        // When
+        MongoCollection<Document> first = handles.get(scriptService, context, message);
+        MongoCollection<Document> second = handles.get(scriptService, context, message);
+        MongoCollection<Document> third = handles.get(scriptService, context, message);
+
+        // Then
+        assertThat(handles.isStatic()).isFalse();
+        assertThat(handles.staticHandle()).isNull();
+        assertThat(first).isSameAs(third).isNotSameAs(second);
+        assertThat(createdHandles).isEqualTo(2);
+        assertThat(handles.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedHandle() {
+        // Given
+        DynamicString collection = script("#[message.attributes().tenant]");
+        CollectionHandles<Document> handles = handles(null, collection, 2);
+        doReturn(Optional.of("a"), Optional.of("b"), Optional.of("a"), Optional.of("c"), Optional.of("a"), Optional.of("b"))
+                .when(scriptService).evaluate(collection, context, message);
+
+        // When
+        MongoCollection<Document> a = handles.get(scriptService, context, message);
+        handles.get(scriptService, context, message); // b
+        handles.get(scriptService, context, message); // a
+        handles.get(scriptService, context, message); // c evicts b
+        MongoCollection<Document> stillA = handles.get(scriptService, context, message);
+        handles.get(scriptService, context, message); // b is created again
+
+        // Then
+        assertThat(stillA).isSameAs(a);
+        assertThat(createdHandles).isEqualTo(4);
+        assertThat(handles.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDatabaseEvaluatesToEmpty() {
+        // Given
+        DynamicString database = script("#[message.attributes().tenant]");
+        CollectionHandles<Document> handles = handles(database, DynamicString.from("orders"), 10);
+        doReturn(Optional.of(" ")).when(scriptService).evaluate(database, context, message);
+
+        // Expect
+        assertThatThrownBy(() -> handles.get(scriptService, context, message))
+                .isInstanceOf(CollectionException.class)
+                .hasMessage("The MongoDB database name was empty (DynamicValue=[#[message.attributes().tenant]]).");
+    }
+
+    private CollectionHandles<Document> handles(DynamicString database, DynamicString collection, int maxHandles) {
+        return new CollectionHandles<>(client, "connection-db", database, collection, maxHandles,
+                (mongoDatabase, collectionName) -> {
+                    createdHandles++;
+                    @SuppressWarnings("unchecked")
+                    MongoCollection<Document> handle = mock(MongoCollection.class);
+                    return handle;
+                });
+    }
+
+    private static DynamicString script(String expression) {
+        return DynamicString.from(expression, new ModuleContext(10L));
+    }
+}
@@ -0,0 +1,108 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConnectionWarmUpTest {
+
+    private final ClusterId clusterId = new ClusterId();
+    private final ServerId server1 = new ServerId(clusterId, new ServerAddress("host1", 27017));
+    private final ServerId server2 = new ServerId(clusterId, new ServerAddress("host2", 27017));
+
+    private MongoClient client;
+    private MongoDatabase database;
+    private ConnectionWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(MongoClient.class);
+        database = mock(MongoDatabase.class);
+        doReturn(database).when(client).getDatabase("myDatabase");
+        warmUp = new ConnectionWarmUp();
+    }
+
+    @Test
+    void shouldStartWarmUpAgainAfterFailure() throws Exception {
+        // Given
+        doThrow(new MongoTimeoutException("Timed out"))
+                .doReturn(new Document("ok", 1))
+                .when(database).runCommand(any(Bson.class));
+
+        CompletableFuture<Void> failed = warmUp.start(client, "myDatabase", 0);
+        assertThatThrownBy(() -> failed.get(5, SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(MongoTimeoutException.class);
+
+        // When
+        CompletableFuture<Void> retried = warmUp.start(client, "myDatabase", 0);
+
+        // Then
+        assertThat(retried).isNotSameAs(failed);
+        retried.get(5, SECONDS);
+        assertThat(retried).isCompleted();
+        verify(database, times(2)).runCommand(any(Bson.class));
+    }
+
+    @Test
+    void shouldNotStartWarmUpAgainWhenSucceeded() throws Exception {
+        // Given
+        doReturn(new Document("ok", 1)).when(database).runCommand(any(Bson.class));
+        CompletableFuture<Void> first = warmUp.start(client, "myDatabase", 0);
+        first.get(5, SECONDS);
+
+        // When
+        CompletableFuture<Void> second = warmUp.start(client, "myDatabase", 0);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(database, times(1)).runCommand(any(Bson.class));
+    }
+
+    @Test
+    void shouldWaitForMinConnectionsOfEachServer() throws Exception {
+        // Given
+        doReturn(new Document("ok", 1)).when(database).runCommand(any(Bson.class));
+        warmUp.connectionPoolOpened(new ConnectionPoolOpenedEvent(server1, ConnectionPoolSettings.builder().build()));
+        warmUp.connectionPoolOpened(new ConnectionPoolOpenedEvent(server2, ConnectionPoolSettings.builder().build()));
+
+        CompletableFuture<Void> ready = warmUp.start(client, "myDatabase", 2);
+        verify(database, timeout(5000)).runCommand(any(Bson.class));
+
+        // When
+        warmUp.connectionAdded(new ConnectionAddedEvent(new ConnectionId(server1)));
+        warmUp.connectionAdded(new ConnectionAddedEvent(new ConnectionId(server1)));
+        warmUp.connectionAdded(new ConnectionAddedEvent(new ConnectionId(server2)));
+
+        // Then
+        assertThat(ready).isNotDone();
+        assertThat(warmUp.getOpenConnections()).containsEntry("host1:27017", 2).containsEntry("host2:27017", 1);
+
+        // When
+        warmUp.connectionAdded(new ConnectionAddedEvent(new ConnectionId(server2)));
+
+        // Then
+        ready.get(5, SECONDS);
+        assertThat(ready).isCompleted();
+    }
+}
@@ -1,19 +1,25 @@
 package com.reedelk.mongodb.internal.commons;
 
+import com.reedelk.mongodb.internal.exception.DocumentException;
 import com.reedelk.mongodb.internal.exception.QueryException;
 import com.reedelk.runtime.api.converter.ConverterService;
 import com.reedelk.runtime.api.message.content.Pair;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.testcontainers.shaded.com.google.common.collect.ImmutableMap.of;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +56,21 @@ class DocumentUtilsTest {
         assertThat(document).hasSize(2);
     }
 
+    @Test
+    void shouldCreateDocumentFromJsonBytesWithoutConverter() {
+        // Given
+        byte[] json = "{ \"name\": \"M\u00fcnchen\", \"age\": 43 }".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        Document document = DocumentUtils.from(converterService, json, Unsupported.documentType(json));
+
+        // Then
+        assertThat(document.get("name")).isEqualTo("M\u00fcnchen");
+        assertThat(document.get("age")).isEqualTo(43);
+        assertThat(document).hasSize(2);
+        verifyZeroInteractions(converterService);
+    }
+
     @Test
     void shouldCreateDocumentFromPair() {
         // Given
@@ -75,4 +96,73 @@ class DocumentUtilsTest {
         // Then
         assertThat(thrown).hasMessage("Query with type=[java.lang.Integer] is not a supported.");
     }
+
+    @Test
+    void shouldParseJsonBytesIntoRawDocument() {
+        // Given
+        byte[] json = "{ \"name\": \"Mark\", \"city\": \"M\u00fcnchen\", \"tags\": [ 1, 2 ] }"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // When
+        RawBsonDocument document = DocumentUtils.parse(json);
+
+        // Then
+        assertThat(document.getString("name").getValue()).isEqualTo("Mark");
+        assertThat(document.getString("city").getValue()).isEqualTo("M\u00fcnchen");
+        assertThat(document.getArray("tags")).hasSize(2);
+        assertThat(document).hasSize(3);
+    }
+
+    @Test
+    void shouldAppendObjectIdWhenMissing() {
+        // Given
+        RawBsonDocument document = DocumentUtils.parse("{ \"name\": \"Mark\" }".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        RawBsonDocument withId = DocumentUtils.withId(document);
+
+        // Then
+        assertThat(withId.getString("name").getValue()).isEqualTo("Mark");
+        assertThat(withId.get("_id").isObjectId()).isTrue();
+    }
+
+    @Test
+    void shouldKeepExistingId() {
+        // Given
+        RawBsonDocument document = DocumentUtils.parse("{ \"_id\": 3, \"name\": \"Mark\" }".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        RawBsonDocument withId = DocumentUtils.withId(document);
+
+        // Then
+        assertThat(withId).isSameAs(document);
+    }
+
+    @Test
+    void shouldCreateListOfDocumentsFromJsonArray() {
+        // Given
+        String pipeline = "[ { $set: { total: { $add: [ '$price', '$tax' ] } } }, { $unset: 'tax' } ]";
+
+        // When
+        List<Bson> documents = DocumentUtils.listFrom(converterService, pipeline, Unsupported::documentType);
+
+        // Then
+        assertThat(DocumentUtils.isList(pipeline)).isTrue();
+        assertThat(documents).hasSize(2);
+        assertThat(((Document) documents.get(1)).get("$unset")).isEqualTo("tax");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenListItemIsNotDocument() {
+        // Given
+        String pipeline = "[ { $unset: 'tax' }, 3 ]";
+
+        // When
+        DocumentException thrown = assertThrows(DocumentException.class,
+                () -> DocumentUtils.listFrom(converterService, pipeline, Unsupported::documentType));
+
+        // Then
+        assertThat(thrown).hasMessage("Document with type=[java.lang.Integer] is not a supported. " +
+                "Did you mean to update with an empty document ({}) ?");
+    }
 }
@@ -0,0 +1,123 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reedelk.mongodb.internal.exception.InsertException;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class InsertBatcherTest {
+
+    private MongoCollection<RawBsonDocument> collection;
+    private InsertBatcher batcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        collection = mock(MongoCollection.class);
+        batcher = new InsertBatcher(collection, 2, 1024 * 1024, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.dispose();
+    }
+
+    @Test
+    void shouldFailOnlyDocumentWithWriteError() {
+        // Given
+        BulkWriteError writeError = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        doThrow(bulkWriteException(singletonList(writeError), null))
+                .when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+
+        // When
+        CompletableFuture<Void> first = batcher.submit(document(1));
+        CompletableFuture<Void> second = batcher.submit(document(2));
+
+        // Then
+        assertThat(first).isCompleted();
+        assertThat(first.isCompletedExceptionally()).isFalse();
+        assertThatThrownBy(second::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InsertException.class)
+                .hasMessageContaining("code=[11000], error=[duplicate key]");
+    }
+
+    @Test
+    void shouldFailAllDocumentsWhenWriteConcernErrorOnly() {
+        // Given
+        WriteConcernError writeConcernError = new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out", new BsonDocument());
+        doThrow(bulkWriteException(emptyList(), writeConcernError))
+                .when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+
+        // When
+        CompletableFuture<Void> first = batcher.submit(document(1));
+        CompletableFuture<Void> second = batcher.submit(document(2));
+
+        // Then
+        assertThatThrownBy(first::get)
+                .hasCauseInstanceOf(InsertException.class)
+                .hasMessageContaining("the write concern could not be satisfied (code=[64], error=[waiting for replication timed out])");
+        assertThatThrownBy(second::get)
+                .hasCauseInstanceOf(InsertException.class)
+                .hasMessageContaining("the write concern could not be satisfied (code=[64], error=[waiting for replication timed out])");
+    }
+
+    @Test
+    void shouldRejectDocumentSubmittedAfterDispose() {
+        // Given
+        batcher.dispose();
+
+        // When
+        CompletableFuture<Void> result = batcher.submit(document(1));
+
+        // Then
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InsertException.class)
+                .hasMessageContaining("The batch insert has been disposed, the document could not be inserted.");
+        verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    @Test
+    void shouldWritePendingDocumentsOnDispose() throws Exception {
+        // Given
+        CompletableFuture<Void> result = batcher.submit(document(1));
+
+        // When
+        batcher.dispose();
+
+        // Then
+        result.get();
+        verify(collection).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    private static RawBsonDocument document(int id) {
+        return RawBsonDocument.parse("{ _id: " + id + " }");
+    }
+
+    private static MongoBulkWriteException bulkWriteException(List<BulkWriteError> writeErrors, WriteConcernError writeConcernError) {
+        return new MongoBulkWriteException(BulkWriteResult.acknowledged(2 - writeErrors.size(), 0, 0, 0, emptyList()),
+                writeErrors, writeConcernError, new ServerAddress());
+    }
+}
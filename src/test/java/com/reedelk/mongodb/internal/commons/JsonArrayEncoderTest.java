@@ -0,0 +1,76 @@
+package com.reedelk.mongodb.internal.commons;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonArrayEncoderTest {
+
+    @Test
+    void shouldEncodeEmptyArrayWhenNoDocuments() {
+        // Given
+        List<RawBsonDocument> documents = Collections.emptyList();
+
+        // When
+        String json = JsonArrayEncoder.encode(documents);
+
+        // Then
+        assertThat(json).isEqualTo("[]");
+    }
+
+    @Test
+    void shouldEncodeDocumentsAsJsonArray() throws JSONException {
+        // Given
+        List<RawBsonDocument> documents = asList(
+                RawBsonDocument.parse("{ name: 'Olav', age: 55, address: { city: 'Oslo' } }"),
+                RawBsonDocument.parse("{ name: 'Mark', tags: ['a', 'b'] }"));
+
+        // When
+        String json = JsonArrayEncoder.encode(documents);
+
+        // Then
+        String expected = "[" +
+                "{ \"name\": \"Olav\", \"age\": 55, \"address\": { \"city\": \"Oslo\" } }," +
+                "{ \"name\": \"Mark\", \"tags\": [\"a\", \"b\"] }" +
+                "]";
+        JSONAssert.assertEquals(expected, json, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    void shouldEncodeObjectIdAsExtendedJson() {
+        // Given
+        RawBsonDocument document =
+                RawBsonDocument.parse("{ _id: { $oid: '5ecd5ccf2e3b5a0bd33e0d3b' } }");
+
+        // When
+        String json = JsonArrayEncoder.encode(document);
+
+        // Then
+        assertThat(json).isEqualTo("{\"_id\": {\"$oid\": \"5ecd5ccf2e3b5a0bd33e0d3b\"}}");
+    }
+
+    @Test
+    void shouldEncodeDocumentsLikeDocumentToJson() {
+        // Given
+        String json = "{ count: { $numberLong: '5' }, price: 1.5, at: { $date: 1590000000000 }, total: { $numberDecimal: '1.2' } }";
+        RawBsonDocument document = RawBsonDocument.parse(json);
+
+        // When
+        String actual = JsonArrayEncoder.encode(asList(document, document));
+
+        // Then
+        String expected = Document.parse(json).toJson();
+        assertThat(actual).isEqualTo("[" + expected + ", " + expected + "]");
+        assertThat(expected).isEqualTo("{\"count\": {\"$numberLong\": \"5\"}, \"price\": 1.5, " +
+                "\"at\": {\"$date\": 1590000000000}, \"total\": {\"$numberDecimal\": \"1.2\"}}");
+    }
+}
@@ -0,0 +1,71 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.DocumentException;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonDocumentIteratorTest {
+
+    @Test
+    void shouldParseNdjsonDocuments() {
+        // Given
+        String ndjson = "{ \"name\": \"John\" }\n{ \"name\": \"Mark\", \"age\": 32 }\n";
+
+        // When
+        List<RawBsonDocument> documents = parse(ndjson);
+
+        // Then
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0).getString("name").getValue()).isEqualTo("John");
+        assertThat(documents.get(1).getInt32("age").getValue()).isEqualTo(32);
+    }
+
+    @Test
+    void shouldParseJsonArrayOfDocuments() {
+        // Given
+        String jsonArray = "[ { \"name\": \"John\" }, { \"name\": \"Mark\" } ]";
+
+        // When
+        List<RawBsonDocument> documents = parse(jsonArray);
+
+        // Then
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(1).getString("name").getValue()).isEqualTo("Mark");
+    }
+
+    @Test
+    void shouldReturnNoDocumentsWhenEmpty() {
+        // When
+        List<RawBsonDocument> documents = parse("   ");
+
+        // Then
+        assertThat(documents).isEmpty();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenArrayItemIsNotDocument() {
+        // Given
+        JsonDocumentIterator iterator = new JsonDocumentIterator(new StringReader("[ { \"name\": \"John\" }, 3 ]"));
+        iterator.next();
+
+        // When
+        DocumentException thrown = assertThrows(DocumentException.class, iterator::hasNext);
+
+        // Then
+        assertThat(thrown).hasMessage("The streamed JSON must contain documents, " +
+                "either in a top level JSON array or one document per line (found=[INT32]).");
+    }
+
+    private List<RawBsonDocument> parse(String json) {
+        List<RawBsonDocument> documents = new ArrayList<>();
+        new JsonDocumentIterator(new StringReader(json)).forEachRemaining(documents::add);
+        return documents;
+    }
+}
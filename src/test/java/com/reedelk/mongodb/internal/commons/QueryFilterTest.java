@@ -0,0 +1,130 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.FindException;
+import com.reedelk.runtime.api.commons.ModuleContext;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
+import com.reedelk.runtime.api.script.ScriptEngineService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.reedelk.mongodb.internal.commons.Messages.Find.FIND_QUERY_NULL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class QueryFilterTest {
+
+    private ConverterService converterService;
+    private ScriptEngineService scriptService;
+    private FlowContext context;
+    private Message message;
+    private MessageAttributes attributes;
+
+    @BeforeEach
+    void setUp() {
+        converterService = mock(ConverterService.class);
+        scriptService = mock(ScriptEngineService.class);
+        context = mock(FlowContext.class);
+        message = mock(Message.class);
+        attributes = mock(MessageAttributes.class);
+        doReturn(attributes).when(message).attributes();
+    }
+
+    @Test
+    void shouldResolveStaticQueryWithoutScriptEngine() {
+        // Given
+        QueryFilter filter = compile(DynamicObject.from("{ _id: 1 }"));
+
+        // When
+        QueryFilter.Resolved first = filter.resolve(scriptService, context, message);
+        QueryFilter.Resolved second = filter.resolve(scriptService, context, message);
+
+        // Then
+        assertThat(first.getQuery()).isInstanceOf(RawBsonDocument.class).isSameAs(second.getQuery());
+        assertThat(first.getValue()).isEqualTo("{ _id: 1 }");
+        verifyZeroInteractions(scriptService);
+    }
+
+    @Test
+    void shouldResolveTemplateWithoutScriptEngine() {
+        // Given
+        doReturn("ACTIVE").when(attributes).get("status");
+        QueryFilter filter = compile(DynamicObject.from("{ status: :status }"));
+
+        // When
+        QueryFilter.Resolved resolved = filter.resolve(scriptService, context, message);
+
+        // Then
+        assertThat(((Document) resolved.getQuery()).toJson()).isEqualTo("{\"status\": \"ACTIVE\"}");
+        assertThat(resolved.getValue()).isEqualTo("{\"status\": \"ACTIVE\"}");
+        verifyZeroInteractions(scriptService);
+    }
+
+    @Test
+    void shouldEvaluateScript() {
+        // Given
+        Map<String, Object> evaluated = new HashMap<>();
+        evaluated.put("age", 43);
+        DynamicObject query = DynamicObject.from("#[message.payload()]", new ModuleContext(10L));
+        doReturn(Optional.of(evaluated)).when(scriptService).evaluate(query, context, message);
+        QueryFilter filter = compile(query);
+
+        // When
+        QueryFilter.Resolved resolved = filter.resolve(scriptService, context, message);
+
+        // Then
+        assertThat(((Document) resolved.getQuery()).getInteger("age")).isEqualTo(43);
+        assertThat(resolved.getValue()).isSameAs(evaluated);
+    }
+
+    @Test
+    void shouldThrowWhenScriptEvaluatesToNull() {
+        // Given
+        DynamicObject query = DynamicObject.from("#[message.payload()]", new ModuleContext(10L));
+        doReturn(Optional.empty()).when(scriptService).evaluate(query, context, message);
+        QueryFilter filter = compile(query);
+
+        // Expect
+        assertThatThrownBy(() -> filter.resolve(scriptService, context, message))
+                .isInstanceOf(FindException.class)
+                .hasMessage("The Find query was null. I cannot execute find operation " +
+                        "with a null query (DynamicValue=[#[message.payload()]]).");
+    }
+
+    @Test
+    void shouldReturnNullWhenQueryIsEmpty() {
+        // Given
+        QueryFilter filter = compile(DynamicObject.from(" "));
+
+        // When
+        QueryFilter.Resolved resolved = filter.resolve(scriptService, context, message);
+
+        // Then
+        assertThat(resolved).isNull();
+        verifyZeroInteractions(scriptService);
+    }
+
+    @Test
+    void shouldThrowWhenRequiredQueryIsEmpty() {
+        // Given
+        QueryFilter filter = compile(null);
+
+        // Expect
+        assertThatThrownBy(() -> filter.resolveRequired(scriptService, context, message))
+                .isInstanceOf(FindException.class);
+    }
+
+    private QueryFilter compile(DynamicObject query) {
+        return QueryFilter.compile(converterService, query, value -> new FindException(FIND_QUERY_NULL.format(value)));
+    }
+}
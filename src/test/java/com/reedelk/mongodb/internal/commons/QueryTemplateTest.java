@@ -0,0 +1,179 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.mongodb.internal.exception.QueryException;
+import com.reedelk.runtime.api.commons.ModuleContext;
+import com.reedelk.runtime.api.flow.FlowContext;
+import com.reedelk.runtime.api.message.Message;
+import com.reedelk.runtime.api.message.MessageAttributes;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class QueryTemplateTest {
+
+    private FlowContext context;
+    private Message message;
+    private MessageAttributes attributes;
+
+    @BeforeEach
+    void setUp() {
+        context = mock(FlowContext.class);
+        message = mock(Message.class);
+        attributes = mock(MessageAttributes.class);
+        doReturn(attributes).when(message).attributes();
+    }
+
+    @Test
+    void shouldCompileQueryWithPlaceholders() {
+        // Given
+        DynamicObject query = DynamicObject.from("{ customerId: :id, status: { $in: [ :payload.status, 'ACTIVE' ] } }");
+
+        // When
+        QueryTemplate template = QueryTemplate.compile(query);
+
+        // Then
+        assertThat(template).isNotNull();
+    }
+
+    @Test
+    void shouldNotCompileQueryWithoutPlaceholders() {
+        // Given
+        DynamicObject query = DynamicObject.from("{ \"time\": \"10:30\", 'label': ':notAPlaceholder', count: 3 }");
+
+        // When
+        QueryTemplate template = QueryTemplate.compile(query);
+
+        // Then
+        assertThat(template).isNull();
+    }
+
+    @Test
+    void shouldNotCompileScript() {
+        // Given
+        DynamicObject query = DynamicObject.from("#[{ customerId: message.attributes().id }]", new ModuleContext(10L));
+
+        // When
+        QueryTemplate template = QueryTemplate.compile(query);
+
+        // Then
+        assertThat(template).isNull();
+    }
+
+    @Test
+    void shouldSkipRegularExpressionLiterals() {
+        // Given
+        doReturn("ACTIVE").when(attributes).get("status");
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ url: /^https?:,:host/i, tags: [ /it's/, :status ] }"));
+
+        // When
+        Document actual = template.bind(context, message);
+
+        // Then
+        assertThat(actual.get("url")).isInstanceOf(BsonRegularExpression.class)
+                .isEqualTo(new BsonRegularExpression("^https?:,:host", "i"));
+        assertThat(actual.get("tags")).isEqualTo(asList(new BsonRegularExpression("it's"), "ACTIVE"));
+    }
+
+    @Test
+    void shouldBindPayloadAndNestedPayloadFields() {
+        // Given
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "Milan");
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("address", address);
+        doReturn(payload).when(message).payload();
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ city: :payload.address.city, all: :payload }"));
+
+        // When
+        Document actual = template.bind(context, message);
+
+        // Then
+        assertThat(actual.get("city")).isEqualTo("Milan");
+        assertThat(actual.get("all")).isEqualTo(payload);
+    }
+
+    @Test
+    void shouldBindContextAndAttributes() {
+        // Given
+        doReturn("Olav").when(context).get("name");
+        doReturn(55).when(attributes).get("age");
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ name: :context.name, age: :attributes.age, same: :age }"));
+
+        // When
+        Document actual = template.bind(context, message);
+
+        // Then
+        assertThat(actual.toJson()).isEqualTo("{\"name\": \"Olav\", \"age\": 55, \"same\": 55}");
+    }
+
+    @Test
+    void shouldBindRepeatedPlaceholders() {
+        // Given
+        doReturn("ACTIVE").when(attributes).get("status");
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ $or: [ { status: :status }, { previous: { $in: [ :status, 'NEW' ] } } ] }"));
+
+        // When
+        Document actual = template.bind(context, message);
+
+        // Then
+        assertThat(actual.toJson())
+                .isEqualTo("{\"$or\": [{\"status\": \"ACTIVE\"}, {\"previous\": {\"$in\": [\"ACTIVE\", \"NEW\"]}}]}");
+    }
+
+    @Test
+    void shouldBindExplicitNullValue() {
+        // Given
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("status", null);
+        doReturn(payload).when(message).payload();
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ status: :payload.status }"));
+
+        // When
+        Document actual = template.bind(context, message);
+
+        // Then
+        assertThat(actual.containsKey("status")).isTrue();
+        assertThat(actual.get("status")).isNull();
+    }
+
+    @Test
+    void shouldThrowWhenPlaceholderValueIsMissing() {
+        // Given
+        doReturn(new HashMap<>()).when(message).payload();
+
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ status: :payload.order.status }"));
+
+        // Expect
+        assertThatThrownBy(() -> template.bind(context, message))
+                .isInstanceOf(QueryException.class)
+                .hasMessage("Could not bind the query placeholder ':payload.order.status', " +
+                        "the value was not found in the message payload, attributes or flow context.");
+    }
+
+    @Test
+    void shouldThrowWhenContextValueIsMissing() {
+        // Given
+        QueryTemplate template = QueryTemplate.compile(DynamicObject.from("{ name: :context.name }"));
+
+        // Expect
+        assertThatThrownBy(() -> template.bind(context, message))
+                .isInstanceOf(QueryException.class)
+                .hasMessageContaining("':context.name'");
+    }
+}
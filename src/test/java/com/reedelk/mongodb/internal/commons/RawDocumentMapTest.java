@@ -0,0 +1,115 @@
+package com.reedelk.mongodb.internal.commons;
+
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RawDocumentMapTest {
+
+    @Test
+    void shouldDecodeFieldsOnAccess() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ name: 'Mark', age: 43, " +
+                "balance: { $numberLong: '1200' }, active: true, " +
+                "birth: { $date: 0 }, missing: null }");
+
+        // When
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // Then
+        assertThat(map.get("name")).isEqualTo("Mark");
+        assertThat(map.get("age")).isEqualTo(43);
+        assertThat(map.get("balance")).isEqualTo(1200L);
+        assertThat(map.get("active")).isEqualTo(true);
+        assertThat(map.get("birth")).isEqualTo(new Date(0));
+        assertThat(map.get("missing")).isNull();
+        assertThat(map.get("notExistent")).isNull();
+        assertThat(map).containsKey("missing");
+        assertThat(map).doesNotContainKey("notExistent");
+        assertThat(map).hasSize(6);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldDecodeEmbeddedDocumentsAndArrays() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ address: { city: 'Oslo' }, " +
+                "tags: ['a', 'b'], items: [ { sku: 1 } ] }");
+
+        // When
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // Then
+        Map<String, Object> address = (Map<String, Object>) map.get("address");
+        assertThat(address).containsEntry("city", "Oslo");
+
+        List<Object> tags = (List<Object>) map.get("tags");
+        assertThat(tags).containsExactly("a", "b");
+
+        List<Map<String, Object>> items = (List<Map<String, Object>>) map.get("items");
+        assertThat(items.get(0)).containsEntry("sku", 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldReplaceTopLevelObjectIdWithHexRepresentation() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ _id: { $oid: '5ecd5ccf2e3b5a0bd33e0d3b' }, " +
+                "nested: { _id: { $oid: '5ecd5ccf2e3b5a0bd33e0d3c' } } }");
+
+        // When
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // Then
+        Map<String, Object> id = (Map<String, Object>) map.get("_id");
+        assertThat(id).containsEntry("$oid", "5ecd5ccf2e3b5a0bd33e0d3b");
+
+        Map<String, Object> nested = (Map<String, Object>) map.get("nested");
+        assertThat(nested.get("_id")).hasToString("5ecd5ccf2e3b5a0bd33e0d3c");
+    }
+
+    @Test
+    void shouldNotReplaceCustomUserDefinedId() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ _id: 21, name: 'Jason' }");
+
+        // When
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // Then
+        assertThat(map.get("_id")).isEqualTo(21);
+    }
+
+    @Test
+    void shouldIterateAllEntriesInDocumentOrder() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ name: 'Mark', surname: 'Anton', age: 32 }");
+
+        // When
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // Then
+        assertThat(map.keySet()).containsExactly("name", "surname", "age");
+        assertThat(map.values()).containsExactly("Mark", "Anton", 32);
+        assertThat(map).hasToString("{name=Mark, surname=Anton, age=32}");
+    }
+
+    @Test
+    void shouldBeReadOnly() {
+        // Given
+        RawBsonDocument document = RawBsonDocument.parse("{ name: 'Mark' }");
+        Map<String, Object> map = new RawDocumentMap(document);
+
+        // When
+        assertThrows(UnsupportedOperationException.class, () -> map.put("name", "John"));
+
+        // Then
+        assertThat(map.get("name")).isEqualTo("Mark");
+    }
+}
@@ -0,0 +1,85 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import com.mongodb.TaggableReadPreference;
+import com.reedelk.mongodb.component.Find;
+import com.reedelk.mongodb.component.ReadConcernLevel;
+import com.reedelk.mongodb.component.ReadPreferenceConfiguration;
+import com.reedelk.mongodb.component.ReadPreferenceMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadPreferenceUtilsTest {
+
+    @Test
+    void shouldInheritReadPreferenceWhenNotConfigured() {
+        // When
+        ReadPreference readPreference = ReadPreferenceUtils.from(ReadPreference.nearest(), (ReadPreferenceConfiguration) null);
+
+        // Then
+        assertThat(readPreference).isEqualTo(ReadPreference.nearest());
+    }
+
+    @Test
+    void shouldCreateReadPreferenceWithTagSetsAndMaxStaleness() {
+        // Given
+        ReadPreferenceConfiguration configuration = new ReadPreferenceConfiguration();
+        configuration.setMode(ReadPreferenceMode.SECONDARY_PREFERRED);
+        configuration.setTagSets("dc:east, usage:reporting;dc:west;");
+        configuration.setMaxStaleness(120);
+
+        // When
+        ReadPreference readPreference = ReadPreferenceUtils.from(ReadPreference.primary(), configuration);
+
+        // Then
+        assertThat(readPreference.getName()).isEqualTo("secondaryPreferred");
+        TaggableReadPreference taggable = (TaggableReadPreference) readPreference;
+        assertThat(taggable.getTagSetList()).containsExactly(
+                new TagSet(Arrays.asList(new Tag("dc", "east"), new Tag("usage", "reporting"))),
+                new TagSet(new Tag("dc", "west")),
+                new TagSet(Collections.emptyList()));
+        assertThat(taggable.getMaxStaleness(TimeUnit.SECONDS)).isEqualTo(120);
+    }
+
+    @Test
+    void shouldThrowWhenTagSetsAreUsedWithPrimaryMode() {
+        // Given
+        ReadPreferenceConfiguration configuration = new ReadPreferenceConfiguration();
+        configuration.setMode(ReadPreferenceMode.PRIMARY);
+        configuration.setTagSets("dc:east");
+
+        // Expect
+        assertThatThrownBy(() -> ReadPreferenceUtils.validate(Find.class, configuration))
+                .hasMessage("MongoDB read preference tag sets and max staleness can not be used with the primary mode");
+    }
+
+    @Test
+    void shouldThrowWhenTagSetsAreNotValid() {
+        // Given
+        ReadPreferenceConfiguration configuration = new ReadPreferenceConfiguration();
+        configuration.setMode(ReadPreferenceMode.NEAREST);
+        configuration.setTagSets("dc=east");
+
+        // Expect
+        assertThatThrownBy(() -> ReadPreferenceUtils.validate(Find.class, configuration))
+                .hasMessage("MongoDB read preference tag sets must be name:value pairs separated by ',' and tag sets separated by ';'");
+    }
+
+    @Test
+    void shouldCreateReadConcernFromLevel() {
+        // When
+        ReadConcern readConcern = ReadPreferenceUtils.from(ReadConcern.DEFAULT, ReadConcernLevel.MAJORITY);
+
+        // Then
+        assertThat(readConcern).isEqualTo(ReadConcern.MAJORITY);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.reedelk.runtime.api.commons.ModuleContext;
+import com.reedelk.runtime.api.converter.ConverterService;
+import com.reedelk.runtime.api.script.dynamicvalue.DynamicObject;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.testcontainers.shaded.com.google.common.collect.ImmutableMap.of;
+
+@ExtendWith(MockitoExtension.class)
+class StaticDocumentTest {
+
+    @Mock
+    private ConverterService converterService;
+
+    @Test
+    void shouldCompileConstantJsonFilter() {
+        // Given
+        DynamicObject query = DynamicObject.from("{ _id: 1, name: 'Mark' }");
+
+        // When
+        RawBsonDocument document = StaticDocument.compile(converterService, query, Unsupported::queryType);
+
+        // Then
+        assertThat(document.get("_id")).isEqualTo(new BsonInt32(1));
+        assertThat(document.get("name")).isEqualTo(new BsonString("Mark"));
+        assertThrows(UnsupportedOperationException.class, () -> document.put("name", new BsonString("John")));
+    }
+
+    @Test
+    void shouldCompileConstantMapFilter() {
+        // Given
+        Map<String, Object> filter = of("age", 43);
+        DynamicObject query = DynamicObject.from(filter);
+
+        // When
+        RawBsonDocument document = StaticDocument.compile(converterService, query, Unsupported::queryType);
+
+        // Then
+        assertThat(document.get("age")).isEqualTo(new BsonInt32(43));
+    }
+
+    @Test
+    void shouldNotCompileScript() {
+        // Given
+        DynamicObject query = DynamicObject.from("#[context.myFilter]", new ModuleContext(10L));
+
+        // When
+        RawBsonDocument document = StaticDocument.compile(converterService, query, Unsupported::queryType);
+
+        // Then
+        assertThat(document).isNull();
+    }
+
+    @Test
+    void shouldNotCompileEmptyValue() {
+        // When
+        RawBsonDocument document = StaticDocument.compile(converterService, null, Unsupported::queryType);
+
+        // Then
+        assertThat(document).isNull();
+    }
+}
@@ -0,0 +1,66 @@
+package com.reedelk.mongodb.internal.commons;
+
+import com.mongodb.WriteConcern;
+import com.reedelk.mongodb.component.WriteConcernConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteConcernUtilsTest {
+
+    @Test
+    void shouldInheritWriteConcernWhenNotConfigured() {
+        // When
+        WriteConcern writeConcern = WriteConcernUtils.from(WriteConcern.MAJORITY, null);
+
+        // Then
+        assertThat(writeConcern).isEqualTo(WriteConcern.MAJORITY);
+    }
+
+    @Test
+    void shouldCreateWriteConcernFromConfiguration() {
+        // Given
+        WriteConcernConfiguration configuration = new WriteConcernConfiguration();
+        configuration.setW("majority");
+        configuration.setJournal(true);
+        configuration.setWTimeout(5000);
+
+        // When
+        WriteConcern writeConcern = WriteConcernUtils.from(WriteConcern.ACKNOWLEDGED, configuration);
+
+        // Then
+        assertThat(writeConcern.getWString()).isEqualTo("majority");
+        assertThat(writeConcern.getJournal()).isTrue();
+        assertThat(writeConcern.getWTimeout(TimeUnit.MILLISECONDS)).isEqualTo(5000);
+    }
+
+    @Test
+    void shouldKeepInheritedOptionsNotConfigured() {
+        // Given
+        WriteConcernConfiguration configuration = new WriteConcernConfiguration();
+        configuration.setW("1");
+
+        // When
+        WriteConcern writeConcern = WriteConcernUtils.from(WriteConcern.JOURNALED, configuration);
+
+        // Then
+        assertThat(writeConcern.getW()).isEqualTo(1);
+        assertThat(writeConcern.getJournal()).isTrue();
+    }
+
+    @Test
+    void shouldCreateUnacknowledgedWriteConcern() {
+        // Given
+        WriteConcernConfiguration configuration = new WriteConcernConfiguration();
+        configuration.setUnacknowledged(true);
+        configuration.setW("majority");
+
+        // When
+        WriteConcern writeConcern = WriteConcernUtils.from(WriteConcern.MAJORITY, configuration);
+
+        // Then
+        assertThat(writeConcern.isAcknowledged()).isFalse();
+    }
+}